@@ -0,0 +1,100 @@
+package com.jsoniter;
+
+/**
+ * class ByteCharSequence: CharSequence view over ASCII bytes, without copying
+ * them. A view returned while decoding reads the input buffer of the iterator,
+ * so it is only valid until the iterator moves on or its buffer is reused;
+ * toString makes a String that stays valid. hashCode is the one of the equal
+ * String, equals only accepts other ByteCharSequences, use contentEquals to
+ * compare with any CharSequence.
+ * 
+ * @author MaxiBon
+ *
+ */
+public final class ByteCharSequence implements CharSequence {
+	/**
+	 * ASCII bytes
+	 */
+	private final byte[] data;
+	/**
+	 * first char
+	 */
+	private final int offset;
+	/**
+	 * number of chars
+	 */
+	private final int length;
+
+	/**
+	 * 
+	 * @param data
+	 *            ASCII bytes only
+	 * @param offset
+	 * @param length
+	 */
+	public ByteCharSequence(byte[] data, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > data.length) {
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + length);
+		}
+		this.data = data;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+		}
+		return (char) (data[offset + index] & 0xff);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+		}
+		return new ByteCharSequence(data, offset + start, end - start);
+	}
+
+	/**
+	 * 
+	 * @param other
+	 * @return whether both hold the same chars
+	 */
+	public boolean contentEquals(CharSequence other) {
+		if (other == null || other.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (other.charAt(i) != (char) (data[offset + i] & 0xff)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ByteCharSequence && contentEquals((ByteCharSequence) obj);
+	}
+
+	@Override
+	public int hashCode() {
+		int h = 0;
+		for (int i = offset; i < offset + length; i++) {
+			h = 31 * h + (data[i] & 0xff);
+		}
+		return h;
+	}
+
+	@Override
+	public String toString() {
+		return StringCache.get(data, offset, length);
+	}
+}
@@ -3,16 +3,25 @@ package com.jsoniter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import com.jsoniter.spi.Binding;
 import com.jsoniter.spi.ClassDescriptor;
 import com.jsoniter.spi.ClassInfo;
@@ -25,6 +34,10 @@ import com.jsoniter.spi.JsonException;
 import com.jsoniter.spi.JsoniterSpi;
 import com.jsoniter.spi.TypeLiteral;
 
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewMethod;
+
 /**
  * class Codegen
  * 
@@ -39,13 +52,54 @@ class Codegen {
 	}
 
 	/**
-	 * HASHset
+	 * max number of generated classes remembered as statically callable
+	 */
+	private final static int MAXGENERATEDCLASSES = 1 << 16;
+	/**
+	 * from this many field names the trie dispatch is chosen on AUTO
+	 */
+	static final int TRIEMINFIELDS = 24;
+	/**
+	 * generated classes and whether their decode_ can be called directly
 	 */
-	private final static Set<String> GENETATEDCLASSNAMES = new HashSet<String>();
+	final static GeneratedClassRegistry GENETATEDCLASSNAMES = new GeneratedClassRegistry(MAXGENERATEDCLASSES);
 	/**
 	 * static CodegenAccess.StaticCodegenTarget isDoingStaticCodegen
 	 */
 	static CodegenAccess.StaticCodegenTarget isDoingStaticCodegen = new CodegenAccess.StaticCodegenTarget("");
+	/**
+	 * decoders being generated right now, keyed by cacheKey
+	 */
+	private final static ConcurrentMap<String, GenTask> INFLIGHT = new ConcurrentHashMap<String, GenTask>();
+	/**
+	 * during the first pass of parallel static codegen: classes whose file is
+	 * written in the second pass, null otherwise
+	 */
+	private static volatile ConcurrentMap<String, ClassInfo> deferredStaticSources = null;
+	/**
+	 * manifest of the incremental static codegen in progress, null otherwise
+	 */
+	private static volatile StaticCodegenManifest staticCodegenManifest = null;
+	/**
+	 * projection of the projected decoders, keyed by their cacheKey
+	 */
+	private final static ConcurrentMap<String, Projection> PROJECTIONS = new ConcurrentHashMap<String, Projection>();
+	/**
+	 * cacheKeys of the decoders codegen produced, any other decoder found
+	 * under a cacheKey was registered through JsoniterSpi
+	 */
+	private final static Set<String> GENERATED = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	/**
+	 * cacheKeys of the decoders that, decoding into an existing object, give
+	 * what decoding into a new one gives: trie object decoders reset the
+	 * absent fields, sized collection decoders clear the target
+	 */
+	private final static Set<String> RESETTING = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	/**
+	 * cacheKeys of the sized collection and map decoders, whose class needs
+	 * the static field holding the size hint
+	 */
+	private final static Set<String> SIZEHINTED = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
 	/**
 	 * 
@@ -56,22 +110,60 @@ class Codegen {
 	static Decoder getDecoder(String cacheKey, Type type) {
 		Decoder decoder = JsoniterSpi.getDecoder(cacheKey);
 		if (decoder != null) {
+			CodegenMetrics.recordHit(cacheKey);
 			return decoder;
 		}
+		CodegenMetrics.recordMiss(cacheKey);
 		return gen(cacheKey, type);
 	}
 
 	/**
 	 * 
-	 * @param decoder
-	 * @return
+	 * @param cacheKey
+	 * @return whether the decoder under cacheKey was produced by codegen, not
+	 *         registered through JsoniterSpi
 	 */
-	private static Decoder genNull(Decoder decoder) {
-		Decoder dec = null;
-		if (decoder != null) {
-			dec = decoder;
+	static boolean isGenerated(String cacheKey) {
+		return GENERATED.contains(cacheKey);
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @return whether decoding into an existing object with the decoder under
+	 *         cacheKey gives what decoding into a new one gives
+	 */
+	static boolean resetsAbsentFields(String cacheKey) {
+		return RESETTING.contains(cacheKey);
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 *            of the full decoder
+	 * @param type
+	 * @param projection
+	 * @return the decoder of the projection, cached under its own cacheKey.
+	 *         The full decoder when one is registered for the type or when
+	 *         the decoding mode does not generate code at runtime.
+	 */
+	static Decoder getDecoder(String cacheKey, Type type, Projection projection) {
+		Decoder full = JsoniterSpi.getDecoder(cacheKey);
+		if (full != null && !GENERATED.contains(cacheKey)) {
+			// registered through JsoniterSpi, it decides what to decode
+			return full;
+		}
+		DecodingMode mode = JsoniterSpi.getCurrentConfig().decodingMode();
+		if (mode == DecodingMode.REFLECTION_MODE || mode == DecodingMode.STATIC_MODE) {
+			// the reflection decoder has no projection, static codegen no projected classes
+			return getDecoder(cacheKey, type);
 		}
-		return dec;
+		String projectedCacheKey = projection.cacheKey(cacheKey);
+		Projection existing = PROJECTIONS.putIfAbsent(projectedCacheKey, projection);
+		if (existing != null && !existing.equals(projection)) {
+			throw new JsonException(existing + " and " + projection + " share the decoder " + projectedCacheKey);
+		}
+		return getDecoder(projectedCacheKey, type);
 	}
 
 	/**
@@ -82,41 +174,39 @@ class Codegen {
 	 * @return
 	 */
 	private static String genSupport(String cacheKey, DecodingMode mode, ClassInfo classInfo) {
-		String source = genSource(mode, classInfo);
+		long start = System.nanoTime();
+		String source = genSource(cacheKey, mode, classInfo);
 		source = "public static java.lang.Object decode_(com.jsoniter.JsonIterator iter) throws java.io.IOException { "
 				+ source + "}";
-		if ("true".equals(System.getenv("JSONITER_DEBUG"))) {
-			System.out.println(">>> " + cacheKey);
-			System.out.println(source);
-		}
+		CodegenMetrics.recordSource(cacheKey, source, System.nanoTime() - start);
 		return source;
 	}
 
 	/**
 	 * 
-	 * @param decoder
 	 * @param classInfo
 	 * @param mode
-	 * @return
+	 * @return the reflection decoder, or null when not in reflection mode
 	 */
-	private static void genSupport(Decoder decoder, ClassInfo classInfo, DecodingMode mode) {
+	private static Decoder genSupport(ClassInfo classInfo, DecodingMode mode) {
 		if (mode == DecodingMode.REFLECTION_MODE) {
-			decoder = ReflectionDecoderFactory.create(classInfo);
+			return ReflectionDecoderFactory.create(classInfo);
 		}
+		return null;
 	}
 
 	/**
 	 * 
-	 * @param decoder
 	 * @param cacheKey
 	 * @param mode
-	 * @return
+	 * @return the statically generated decoder, or null when there is none
 	 */
-	private static void genSupport(Decoder decoder, String cacheKey, DecodingMode mode) {
+	private static Decoder genSupport(String cacheKey, DecodingMode mode) {
 		if (isDoingStaticCodegen.outputDir == "") {
 			try {
-				if (Class.forName(cacheKey).newInstance() instanceof Decoder) {
-					decoder = (Decoder) Class.forName(cacheKey).newInstance();
+				Object instance = Class.forName(cacheKey).newInstance();
+				if (instance instanceof Decoder) {
+					return (Decoder) instance;
 				}
 			} catch (Exception e) {
 				if (mode == DecodingMode.STATIC_MODE) {
@@ -125,116 +215,347 @@ class Codegen {
 				}
 			}
 		}
+		return null;
 	}
 
 	/**
 	 * 
-	 * @param decoder
 	 * @param cacheKey
 	 * @param source
 	 * @param classInfo
 	 * @return
 	 */
-	private static Decoder genSupport(Decoder decoder, String cacheKey, String source, ClassInfo classInfo) {
-		Decoder dec = decoder;
+	private static Decoder genSupport(String cacheKey, String source, ClassInfo classInfo) {
+		Decoder dec = null;
 		try {
-			GENETATEDCLASSNAMES.add(cacheKey);
 			if (isDoingStaticCodegen.outputDir == "") {
-				dec = DynamicCodegen.gen(cacheKey, source);
+				long start = System.nanoTime();
+				dec = dynamicGen(cacheKey, source);
+				CodegenMetrics.recordCompile(cacheKey, System.nanoTime() - start);
+			} else if (deferredStaticSources != null) {
+				deferredStaticSources.put(cacheKey, classInfo);
 			} else {
 				staticGen(cacheKey, source);
 			}
+			// classes loaded from the decoder cache can not be linked against
+			GENETATEDCLASSNAMES.register(cacheKey,
+					isDoingStaticCodegen.outputDir != "" || DecoderBytecodeCache.get() == null);
 			return dec;
 		} catch (Exception e) {
+			GENETATEDCLASSNAMES.register(cacheKey, false);
 			String msg = "failed to generate decoder for: " + classInfo + " with "
 					+ java.util.Arrays.toString(classInfo.typeArgs) + ", exception: " + e;
 			msg = msg + "\n" + source;
-			throw new JsonException("Error: Exception");
+			throw new JsonException(msg, e);
+		}
+	}
+
+	/**
+	 * DynamicCodegen.gen, which can not add fields, except for the sized
+	 * collection and map decoders, whose class also holds the size hint
+	 * 
+	 * @param cacheKey
+	 * @param source
+	 * @return
+	 * @throws Exception
+	 */
+	private static Decoder dynamicGen(String cacheKey, String source) throws Exception {
+		if (!SIZEHINTED.contains(cacheKey)) {
+			return DynamicCodegen.gen(cacheKey, source);
 		}
+		CtClass ctClass = DynamicCodegen.pool.makeClass(cacheKey);
+		ctClass.setInterfaces(new CtClass[] { DynamicCodegen.pool.get(Decoder.class.getName()) });
+		ctClass.addField(CtField.make(CodegenImplSizedCollection.genHintField(cacheKey), ctClass));
+		ctClass.addMethod(CtNewMethod.make(source, ctClass));
+		ctClass.addMethod(CtNewMethod.make("public Object decode(com.jsoniter.JsonIterator iter) {return decode_(iter);}",
+				ctClass));
+		return (Decoder) ctClass.toClass().newInstance();
 	}
 
 	/**
+	 * dynamic codegen goes through the on-disk decoder cache when enabled
 	 * 
-	 * @param decoder
 	 * @param cacheKey
+	 * @param mode
 	 * @param classInfo
 	 * @return
 	 */
-	private static Decoder genSupport(Decoder decoder, String cacheKey, ClassInfo classInfo) {
+	private static Decoder genCached(String cacheKey, DecodingMode mode, ClassInfo classInfo) {
+		DecoderBytecodeCache cache = isDoingStaticCodegen.outputDir == "" ? DecoderBytecodeCache.get() : null;
+		if (cache == null) {
+			return genSupport(cacheKey, genSupport(cacheKey, mode, classInfo), classInfo);
+		}
+		String source = genSupport(cacheKey, mode, classInfo);
+		File file = cache.file(cacheKey, source);
+		Decoder decoder = cache.load(cacheKey, file);
+		if (decoder == null) {
+			decoder = genSupport(cacheKey, source, classInfo);
+			cache.store(cacheKey, file);
+		}
+		return decoder;
+	}
+
+	/**
+	 * publishes the generated decoder and wakes up everyone parked on the
+	 * placeholder, also when generation failed
+	 * 
+	 * @param placeholder
+	 * @param cacheKey
+	 * @param classInfo
+	 * @return
+	 */
+	private static Decoder genSupport(PlaceholderDecoder placeholder, String cacheKey, ClassInfo classInfo) {
+		Decoder decoder = null;
 		try {
 			Config currentConfig = JsoniterSpi.getCurrentConfig();
 			DecodingMode mode = currentConfig.decodingMode();
-			genSupport(decoder, classInfo, mode);
-			genSupport(decoder, cacheKey, mode);
-			String source = genSupport(cacheKey, mode, classInfo);
-			return genSupport(decoder, cacheKey, source, classInfo);
+			decoder = genSupport(classInfo, mode);
+			if (decoder == null) {
+				decoder = genSupport(cacheKey, mode);
+			}
+			if (decoder == null) {
+				decoder = genCached(cacheKey, mode, classInfo);
+			}
+			return decoder;
 		} finally {
+			if (decoder != null) {
+				GENERATED.add(cacheKey);
+			}
 			JsoniterSpi.addNewDecoder(cacheKey, decoder);
+			placeholder.complete(decoder);
 		}
 	}
 
 	/**
+	 * single-flight generation: the first caller for a cacheKey generates the
+	 * decoder, concurrent callers for the same cacheKey wait for its result and
+	 * callers for other cacheKeys are not blocked at all.
 	 * 
 	 * @param cacheKey
 	 * @param type
 	 * @return
 	 */
 	private static Decoder gen(String cacheKey, Type type) {
-		synchronized (gen(cacheKey, type)) {
-			Decoder decoder = JsoniterSpi.getDecoder(cacheKey);
-			decoder = genNull(decoder);
-			List<Extension> extensions = JsoniterSpi.getExtensions();
-			for (Extension extension : extensions) {
-				type = extension.chooseImplementation(type);
-			}
-			type = chooseImpl(type);
-			for (Extension extension : extensions) {
-				decoder = extension.createDecoder(cacheKey, type);
-				if (decoder != null) {
-					JsoniterSpi.addNewDecoder(cacheKey, decoder);
+		GenTask task = INFLIGHT.get(cacheKey);
+		if (task == null) {
+			GenTask newTask = new GenTask(cacheKey, type);
+			task = INFLIGHT.putIfAbsent(cacheKey, newTask);
+			if (task == null) {
+				task = newTask;
+				try {
+					task.run();
+				} finally {
+					INFLIGHT.remove(cacheKey, task);
 				}
 			}
-			ClassInfo classInfo = new ClassInfo(type);
-			decoder = CodegenImplNative.NATIVE_DECODERS.get(classInfo.clazz);
-			if (decoder != null) {
-				return decoder;
+		}
+		return awaitGen(cacheKey, task);
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @param task
+	 * @return
+	 */
+	private static Decoder awaitGen(String cacheKey, GenTask task) {
+		if (task.owner == Thread.currentThread() && !task.isDone()) {
+			// recursive structure, the placeholder stands in for the real decoder
+			Decoder placeholder = JsoniterSpi.getDecoder(cacheKey);
+			if (placeholder != null) {
+				return placeholder;
 			}
-			addPlaceholderDecoderToSupportRecursiveStructure(cacheKey);
-			return genSupport(decoder, cacheKey, classInfo);
+			throw new JsonException("recursive generation of decoder for " + cacheKey);
+		}
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new JsonException("interrupted while waiting for decoder of " + cacheKey, e);
+		} catch (ExecutionException e) {
+			throw unwrap(cacheKey, e);
 		}
 	}
 
 	/**
 	 * 
 	 * @param cacheKey
+	 * @param e
+	 * @return the original exception of the generation
 	 */
-	private static void addPlaceholderDecoderToSupportRecursiveStructure(final String cacheKey) {
-		JsoniterSpi.addNewDecoder(cacheKey, new Decoder() {
-			@Override
-			public Object decode(JsonIterator iter) throws IOException {
-				Decoder decoder = JsoniterSpi.getDecoder(cacheKey);
-				try {
-					if (this == decoder) {
-						for (int i = 0; i < 30; i++) {
-							decoder = JsoniterSpi.getDecoder(cacheKey);
-							if (this == decoder) {
-								int n = 1000;
-								Thread.sleep(n);
-
-							} else {
-								break;
-							}
-						}
-						if (this == decoder) {
-							throw new JsonException("internal error: placeholder is not replaced with real decoder");
-						}
-					}
-				} catch (InterruptedException e) {
-					throw new JsonException("Error : InterruptedException");
+	private static RuntimeException unwrap(String cacheKey, ExecutionException e) {
+		Throwable cause = e.getCause();
+		if (cause instanceof RuntimeException) {
+			return (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return new JsonException("failed to generate decoder for " + cacheKey, cause);
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @param type
+	 * @return
+	 */
+	private static Decoder doGen(String cacheKey, Type type) {
+		Decoder decoder = JsoniterSpi.getDecoder(cacheKey);
+		if (decoder != null) {
+			return decoder;
+		}
+		List<Extension> extensions = JsoniterSpi.getExtensions();
+		for (Extension extension : extensions) {
+			type = extension.chooseImplementation(type);
+		}
+		type = chooseImpl(type);
+		for (Extension extension : extensions) {
+			decoder = extension.createDecoder(cacheKey, type);
+			if (decoder != null) {
+				JsoniterSpi.addNewDecoder(cacheKey, decoder);
+			}
+		}
+		ClassInfo classInfo = new ClassInfo(type);
+		decoder = CodegenImplNative.nativeDecoder(classInfo.clazz);
+		if (decoder != null) {
+			// CodegenAccess.readInt and friends look the decoder up by cacheKey
+			JsoniterSpi.addNewDecoder(cacheKey, decoder);
+			return decoder;
+		}
+		decoder = PrimitiveArrayDecoders.DECODERS.get(classInfo.clazz);
+		if (decoder != null) {
+			JsoniterSpi.addNewDecoder(cacheKey, decoder);
+			return decoder;
+		}
+		if (CodegenOptions.isLazy(classInfo.clazz)) {
+			decoder = new LazyProxyDecoder(classInfo.clazz);
+			JsoniterSpi.addNewDecoder(cacheKey, decoder);
+			return decoder;
+		}
+		if (classInfo.clazz.isEnum()) {
+			decoder = new EnumDecoder(classInfo.clazz);
+			JsoniterSpi.addNewDecoder(cacheKey, decoder);
+			return decoder;
+		}
+		PlaceholderDecoder placeholder = addPlaceholderDecoderToSupportRecursiveStructure(cacheKey);
+		return genSupport(placeholder, cacheKey, classInfo);
+	}
+
+	/**
+	 * class GenTask: one in-flight generation, remembers the thread running it
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	private static final class GenTask extends FutureTask<Decoder> {
+		/**
+		 * thread that created, and therefore runs, the task
+		 */
+		final Thread owner = Thread.currentThread();
+
+		/**
+		 * 
+		 * @param cacheKey
+		 * @param type
+		 */
+		GenTask(final String cacheKey, final Type type) {
+			super(new Callable<Decoder>() {
+				@Override
+				public Decoder call() {
+					return doGen(cacheKey, type);
 				}
-				return decoder.decode(iter);
+			});
+		}
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @return
+	 */
+	private static PlaceholderDecoder addPlaceholderDecoderToSupportRecursiveStructure(final String cacheKey) {
+		PlaceholderDecoder placeholder = new PlaceholderDecoder(cacheKey);
+		JsoniterSpi.addNewDecoder(cacheKey, placeholder);
+		return placeholder;
+	}
+
+	/**
+	 * class PlaceholderDecoder: stands in for a decoder still being generated.
+	 * Callers park until genSupport publishes the real decoder, afterwards
+	 * they delegate to it directly.
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	private static final class PlaceholderDecoder implements Decoder {
+		/**
+		 * cacheKey
+		 */
+		private final String cacheKey;
+		/**
+		 * thread generating the real decoder
+		 */
+		private final Thread owner = Thread.currentThread();
+		/**
+		 * released once genSupport is done, successfully or not
+		 */
+		private final CountDownLatch published = new CountDownLatch(1);
+		/**
+		 * the real decoder, null until published
+		 */
+		private volatile Decoder target;
+
+		/**
+		 * 
+		 * @param cacheKey
+		 */
+		PlaceholderDecoder(String cacheKey) {
+			this.cacheKey = cacheKey;
+		}
+
+		/**
+		 * 
+		 * @param decoder
+		 *            the real decoder, null if generation failed
+		 */
+		void complete(Decoder decoder) {
+			target = decoder;
+			published.countDown();
+		}
+
+		@Override
+		public Object decode(JsonIterator iter) throws IOException {
+			Decoder decoder = target;
+			if (decoder == null) {
+				decoder = awaitTarget();
 			}
-		});
+			return decoder.decode(iter);
+		}
+
+		/**
+		 * 
+		 * @return
+		 */
+		private Decoder awaitTarget() {
+			if (published.getCount() != 0 && owner == Thread.currentThread()) {
+				throw new JsonException("decoder for " + cacheKey + " is used while it is being generated");
+			}
+			long start = System.nanoTime();
+			try {
+				published.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new JsonException("interrupted while waiting for decoder of " + cacheKey, e);
+			} finally {
+				CodegenMetrics.recordPlaceholderWait(cacheKey, System.nanoTime() - start);
+			}
+			Decoder decoder = target;
+			if (decoder == null) {
+				throw new JsonException("internal error: placeholder is not replaced with real decoder");
+			}
+			return decoder;
+		}
 	}
 
 	/**
@@ -244,32 +565,66 @@ class Codegen {
 	 * @return
 	 */
 	public static boolean canStaticAccess(String cacheKey) {
-		return GENETATEDCLASSNAMES.contains(cacheKey);
+		return GENETATEDCLASSNAMES.canStaticAccess(cacheKey);
 	}
 
 	/**
 	 * 
+	 * @param type
 	 * @param typeArgs
 	 * @param implClazz
-	 * @return
+	 * @return the registered implementation, otherwise the type itself
 	 */
-	private static Type chooseImplSupp2(Type[] typeArgs, Class implClazz) {
-		if (implClazz != null) {
-			if (typeArgs.length == 0) {
-				return implClazz;
-			}
+	private static Type chooseImplSupp2(Type type, Type[] typeArgs, Class implClazz) {
+		if (implClazz == null) {
+			return type;
+		}
+		if (typeArgs.length == 0) {
+			return implClazz;
 		}
 		return GenericsHelper.createParameterizedType(typeArgs, null, implClazz);
 	}
 
 	/**
 	 * 
+	 * @param compType
+	 * @return the List implementation used when none is registered
+	 */
+	private static Class defaultListImpl(Type compType) {
+		if (CodegenOptions.isPrimitiveCollections()) {
+			if (compType == Integer.class) {
+				return IntArrayList.class;
+			}
+			if (compType == Long.class) {
+				return LongArrayList.class;
+			}
+		}
+		return java.util.ArrayList.class;
+	}
+
+	/**
+	 * 
+	 * @param keyType
+	 * @param valueType
+	 * @return the Map implementation used when none is registered
+	 */
+	private static Class defaultMapImpl(Type keyType, Type valueType) {
+		if (CodegenOptions.isPrimitiveCollections() && (keyType == String.class || keyType == Object.class)
+				&& valueType == Long.class) {
+			return StringLongHashMap.class;
+		}
+		return HashMap.class;
+	}
+
+	/**
+	 * 
+	 * @param type
 	 * @param typeArgs
 	 * @param clazz
 	 * @param implClazz
 	 * @return
 	 */
-	private static Type chooseImplSupp1(Type[] typeArgs, Class clazz, Class implClazz) {
+	private static Type chooseImplSupp1(Type type, Type[] typeArgs, Class clazz, Class implClazz) {
 		if (Map.class.isAssignableFrom(clazz)) {
 			Type keyType = String.class;
 			Type valueType = Object.class;
@@ -281,7 +636,7 @@ class Codegen {
 						+ "try syntax like TypeLiteral<Map<String, String>>{}");
 			}
 			if (clazz == Map.class) {
-				clazz = implClazz == null ? HashMap.class : implClazz;
+				clazz = implClazz == null ? defaultMapImpl(keyType, valueType) : implClazz;
 			}
 			if (keyType == Object.class) {
 				keyType = String.class;
@@ -289,18 +644,19 @@ class Codegen {
 			DefaultMapKeyDecoder.registerOrGetExisting(keyType);
 			return GenericsHelper.createParameterizedType(new Type[] { keyType, valueType }, null, clazz);
 		}
-		return chooseImplSupp2(typeArgs, implClazz);
+		return chooseImplSupp2(type, typeArgs, implClazz);
 
 	}
 
 	/**
 	 * 
+	 * @param type
 	 * @param typeArgs
 	 * @param clazz
 	 * @param implClazz
 	 * @return
 	 */
-	private static Type chooseImplSupp(Type[] typeArgs, Class clazz, Class implClazz) {
+	private static Type chooseImplSupp(Type type, Type[] typeArgs, Class clazz, Class implClazz) {
 		if (Collection.class.isAssignableFrom(clazz)) {
 			Type compType = Object.class;
 			if (typeArgs.length == 1) {
@@ -310,21 +666,22 @@ class Codegen {
 						+ "try syntax like TypeLiteral<List<Integer>>{}");
 			}
 			if (clazz == List.class) {
-				clazz = implClazz == null ? java.util.ArrayList.class : implClazz;
+				clazz = implClazz == null ? defaultListImpl(compType) : implClazz;
 			} else if (clazz == Set.class) {
 				clazz = implClazz == null ? HashSet.class : implClazz;
 			}
 			return GenericsHelper.createParameterizedType(new Type[] { compType }, null, clazz);
 		}
-		return chooseImplSupp1(typeArgs, clazz, implClazz);
+		return chooseImplSupp1(type, typeArgs, clazz, implClazz);
 	}
 
 	/**
 	 * 
 	 * @param type
-	 * @return
+	 * @return the type decoded for type, its implementation for the
+	 *         collection and map interfaces
 	 */
-	private static Type chooseImpl(Type type) {
+	static Type chooseImpl(Type type) {
 		Type[] typeArgs = new Type[0];
 		boolean b1 = type instanceof WildcardType;
 		Class clazz = null;
@@ -336,11 +693,16 @@ class Codegen {
 			}
 		} else if (b1) {
 			type = Object.class;
+			clazz = Object.class;
 		} else if (type instanceof Class) {
 			clazz = (Class) type;
 		}
+		if (clazz == null) {
+			// type variables and generic arrays are left to ClassInfo
+			return type;
+		}
 		Class implClazz = JsoniterSpi.getTypeImplementation(clazz);
-		return chooseImplSupp(typeArgs, clazz, implClazz);
+		return chooseImplSupp(type, typeArgs, clazz, implClazz);
 	}
 
 	/**
@@ -350,17 +712,18 @@ class Codegen {
 	 * @throws IOException
 	 */
 	private static void staticGen(String cacheKey, String source) throws IOException {
-		createDir(cacheKey);
 		String fileName = cacheKey.replace('.', '/') + ".java";
-		FileOutputStream fileOutputStream = null;
+		String content = staticGenFile(cacheKey, source);
+		File file = new File(isDoingStaticCodegen.outputDir, fileName);
+		StaticCodegenManifest manifest = staticCodegenManifest;
+		if (manifest != null && !manifest.update(cacheKey, content) && file.isFile()) {
+			// unchanged since the last run, keep the file and its timestamp
+			return;
+		}
+		createDir(cacheKey);
+		FileOutputStream fileOutputStream = new FileOutputStream(file);
 		try {
-			fileOutputStream = new FileOutputStream(new File(isDoingStaticCodegen.outputDir, fileName));
-			OutputStreamWriter writer = new OutputStreamWriter(fileOutputStream);
-			try {
-				staticGen(cacheKey, writer, source);
-			} finally {
-				writer.close();
-			}
+			fileOutputStream.write(content.getBytes("UTF-8"));
 		} finally {
 			fileOutputStream.close();
 		}
@@ -369,68 +732,151 @@ class Codegen {
 	/**
 	 * 
 	 * @param cacheKey
-	 * @param writer
 	 * @param source
-	 * @throws IOException
+	 * @return the content of the generated java file
 	 */
-	private static void staticGen(String cacheKey, OutputStreamWriter writer, String source) throws IOException {
+	private static String staticGenFile(String cacheKey, String source) {
 		String className = cacheKey.substring(cacheKey.lastIndexOf('.') + 1);
 		String packageName = cacheKey.substring(0, cacheKey.lastIndexOf('.'));
-		writer.write("package " + packageName + ";\n");
-		writer.write("public class " + className + " implements com.jsoniter.spi.Decoder {\n");
-		writer.write(source);
-		writer.write("public java.lang.Object decode(com.jsoniter.JsonIterator iter) throws java.io.IOException {\n");
-		writer.write("return decode_(iter);\n");
-		writer.write("}\n");
-		writer.write("}\n");
+		StringBuilder file = new StringBuilder(source.length() + 256);
+		file.append("package ").append(packageName).append(";\n");
+		file.append("public class ").append(className).append(" implements com.jsoniter.spi.Decoder {\n");
+		if (SIZEHINTED.contains(cacheKey)) {
+			file.append(CodegenImplSizedCollection.genHintField(cacheKey));
+		}
+		file.append(source);
+		file.append("public java.lang.Object decode(com.jsoniter.JsonIterator iter) throws java.io.IOException {\n");
+		file.append("return decode_(iter);\n");
+		file.append("}\n");
+		file.append("}\n");
+		return file.toString();
 	}
 
 	/**
 	 * 
 	 * @param cacheKey
+	 * @throws IOException
 	 */
-	private static void createDir(String cacheKey) {
-		String[] parts = cacheKey.split("\\.");
-		File parent = new File(isDoingStaticCodegen.outputDir);
-		File current = null;
-		for (int i = 0; i < parts.length - 1; i++) {
-			String part = parts[i];
-			current = new File(parent, part);
-			current.mkdir();
-			parent = current;
+	private static void createDir(String cacheKey) throws IOException {
+		int lastDot = cacheKey.lastIndexOf('.');
+		if (lastDot < 0) {
+			return;
+		}
+		File dir = new File(isDoingStaticCodegen.outputDir, cacheKey.substring(0, lastDot).replace('.', '/'));
+		// checked every time, the directory may have been deleted since
+		if (!dir.mkdirs() && !dir.isDirectory()) {
+			throw new IOException("can not create directory " + dir.getAbsolutePath());
 		}
 	}
 
 	/**
 	 * 
+	 * @param cacheKey
 	 * @param mode
 	 * @param classInfo
 	 * @return
 	 */
-	private static String genSource(DecodingMode mode, ClassInfo classInfo) {
+	private static String genSource(String cacheKey, DecodingMode mode, ClassInfo classInfo) {
 		String stringaRitorno = null;
 		if (classInfo.clazz.isArray()) {
 			stringaRitorno = CodegenImplArray.genArray(classInfo);
+		} else if (Map.class.isAssignableFrom(classInfo.clazz)) {
+			stringaRitorno = CodegenImplSizedCollection.genMap(classInfo);
+			if (stringaRitorno == null) {
+				SIZEHINTED.remove(cacheKey);
+				stringaRitorno = CodegenImplMap.genMap(classInfo);
+			} else {
+				SIZEHINTED.add(cacheKey);
+				RESETTING.add(cacheKey);
+			}
+		} else if (Collection.class.isAssignableFrom(classInfo.clazz)) {
+			stringaRitorno = CodegenImplSizedCollection.genCollection(classInfo);
+			if (stringaRitorno == null) {
+				SIZEHINTED.remove(cacheKey);
+				stringaRitorno = CodegenImplArray.genCollection(classInfo);
+			} else {
+				SIZEHINTED.add(cacheKey);
+				RESETTING.add(cacheKey);
+			}
+		} else {
+			ClassDescriptor desc = ClassDescriptor.getDecodingClassDescriptor(classInfo, false);
+			Projection projection = PROJECTIONS.get(cacheKey);
+			if (projection != null) {
+				applyProjection(desc, projection);
+			}
+			stringaRitorno = genObject(cacheKey, mode, desc);
 		}
-		if (Map.class.isAssignableFrom(classInfo.clazz)) {
-			stringaRitorno = CodegenImplMap.genMap(classInfo);
-		}
-		if (Collection.class.isAssignableFrom(classInfo.clazz)) {
-			stringaRitorno = CodegenImplArray.genCollection(classInfo);
+		return stringaRitorno;
+	}
+
+	/**
+	 * skips the fields and setters out of the projection, the descriptor is
+	 * built for this generation only
+	 * 
+	 * @param desc
+	 * @param projection
+	 */
+	private static void applyProjection(ClassDescriptor desc, Projection projection) {
+		for (Binding binding : desc.fields) {
+			binding.shouldSkip |= !projection.includes(binding.name);
 		}
-		if (classInfo.clazz.isEnum()) {
-			stringaRitorno = CodegenImplEnum.genEnum(classInfo);
+		for (Binding binding : desc.setters) {
+			binding.shouldSkip |= !projection.includes(binding.name);
 		}
-		ClassDescriptor desc = ClassDescriptor.getDecodingClassDescriptor(classInfo, false);
-		if (shouldUseStrictMode(mode, desc)) {
-			stringaRitorno = CodegenImplObjectStrict.genObjectUsingStrict(desc);
-		} else {
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @param mode
+	 * @param desc
+	 * @return the object decoder source, with the field dispatch chosen by
+	 *         chooseFieldDispatch
+	 */
+	private static String genObject(String cacheKey, DecodingMode mode, ClassDescriptor desc) {
+		String stringaRitorno = null;
+		switch (chooseFieldDispatch(mode, desc)) {
+		case TRIE:
+			stringaRitorno = CodegenImplObjectTrie.genObjectUsingTrie(desc);
+			RESETTING.add(cacheKey);
+			break;
+		case HASH:
 			stringaRitorno = CodegenImplObjectHash.genObjectUsingHash(desc);
+			break;
+		default:
+			stringaRitorno = CodegenImplObjectStrict.genObjectUsingStrict(desc);
+			break;
 		}
-
 		return stringaRitorno;
 	}
 
+	/**
+	 * strict when the mode or the bindings need it. Otherwise the configured
+	 * dispatch, when the class supports it, or on AUTO: the trie for simple
+	 * classes with many fields or whose field names collide on the hash, the
+	 * hash for the others.
+	 * 
+	 * @param mode
+	 * @param desc
+	 * @return never AUTO
+	 */
+	private static CodegenOptions.FieldDispatch chooseFieldDispatch(DecodingMode mode, ClassDescriptor desc) {
+		if (shouldUseStrictMode(mode, desc)) {
+			return CodegenOptions.FieldDispatch.STRICT;
+		}
+		CodegenOptions.FieldDispatch dispatch = CodegenOptions.getFieldDispatch(desc.clazz);
+		if (dispatch == CodegenOptions.FieldDispatch.STRICT || dispatch == CodegenOptions.FieldDispatch.HASH) {
+			return dispatch;
+		}
+		if (CodegenImplObjectTrie.isSupported(desc) && (dispatch == CodegenOptions.FieldDispatch.TRIE
+				|| CodegenImplObjectTrie.countFieldNames(desc) >= TRIEMINFIELDS
+				|| CodegenImplObjectTrie.hasHashCollision(desc))) {
+			return CodegenOptions.FieldDispatch.TRIE;
+		}
+		// CodegenImplObjectHash itself falls back to strict on collisions
+		return CodegenOptions.FieldDispatch.HASH;
+	}
+
 	/**
 	 * 
 	 * @param mode
@@ -438,42 +884,32 @@ class Codegen {
 	 * @return
 	 */
 	private static boolean shouldUseStrictMode(DecodingMode mode, ClassDescriptor desc) {
-		boolean supp = false;
 		if (mode == DecodingMode.DYNAMIC_MODE_AND_MATCH_FIELD_STRICTLY) {
-			supp = true;
+			return true;
 		}
 		List<Binding> allBindings = desc.allDecoderBindings();
 		for (Binding binding : allBindings) {
 			if (binding.asMissingWhenNotPresent || binding.asExtraWhenPresent || binding.shouldSkip) {
-				supp = true;
+				// only the strict decoder tracks mandatory and extra fields
+				return true;
 			}
 		}
-		if (desc.asExtraForUnknownProperties) {
-			supp = true;
-		}
-		if (!desc.keyValueTypeWrappers.isEmpty()) {
-			supp = true;
-		}
-		supp = shouldUseStrictModeSupp(allBindings);
-		return supp;
+		return desc.asExtraForUnknownProperties || !desc.keyValueTypeWrappers.isEmpty()
+				|| shouldUseStrictModeSupp(allBindings);
 	}
 
 	/**
 	 * 
 	 * @param allBindings
-	 * @return
+	 * @return true for an empty struct, which only the strict decoder handles
 	 */
 	private static boolean shouldUseStrictModeSupp(List<Binding> allBindings) {
-		boolean hasBinding = false;
 		for (Binding allBinding : allBindings) {
 			if (allBinding.fromNames.length > 0) {
-				hasBinding = true;
+				return false;
 			}
 		}
-		if (!hasBinding) {
-			hasBinding = true;
-		}
-		return hasBinding;
+		return true;
 	}
 
 	/**
@@ -484,9 +920,131 @@ class Codegen {
 	 */
 	public static void staticGenDecoders(TypeLiteral[] typeLiterals,
 			CodegenAccess.StaticCodegenTarget staticCodegenTarget) {
+		staticGenDecoders(typeLiterals, staticCodegenTarget, 1);
+	}
+
+	/**
+	 * staticGenDecoders on a fork-join pool. With parallelism above 1 the
+	 * files are written in a second pass, once every generated class is
+	 * known, so the output does not depend on the order the types were
+	 * generated in.
+	 * 
+	 * @param typeLiterals
+	 * @param staticCodegenTarget
+	 * @param parallelism
+	 */
+	public static void staticGenDecoders(TypeLiteral[] typeLiterals,
+			CodegenAccess.StaticCodegenTarget staticCodegenTarget, int parallelism) {
+		staticGenDecoders(typeLiterals, staticCodegenTarget, parallelism, false);
+	}
+
+	/**
+	 * staticGenDecoders, optionally incremental: a manifest of content hashes
+	 * kept in the output directory lets unchanged files be left untouched,
+	 * and files of types that are no longer generated are deleted. The type
+	 * literals must therefore cover every type generated into that directory.
+	 * 
+	 * @param typeLiterals
+	 * @param staticCodegenTarget
+	 * @param parallelism
+	 * @param incremental
+	 */
+	public static void staticGenDecoders(TypeLiteral[] typeLiterals,
+			CodegenAccess.StaticCodegenTarget staticCodegenTarget, int parallelism, boolean incremental) {
 		isDoingStaticCodegen = staticCodegenTarget;
-		for (TypeLiteral typeLiteral : typeLiterals) {
-			gen(typeLiteral.getDecoderCacheKey(), typeLiteral.getType());
+		if (!incremental) {
+			staticGenDecodersSupp(typeLiterals, parallelism);
+			return;
+		}
+		StaticCodegenManifest manifest = StaticCodegenManifest.load(staticCodegenTarget.outputDir);
+		staticCodegenManifest = manifest;
+		try {
+			for (TypeLiteral typeLiteral : typeLiterals) {
+				manifest.keep(typeLiteral.getDecoderCacheKey());
+			}
+			staticGenDecodersSupp(typeLiterals, parallelism);
+			manifest.finish();
+		} catch (IOException e) {
+			throw new JsonException("failed to save " + StaticCodegenManifest.FILENAME, e);
+		} finally {
+			staticCodegenManifest = null;
+		}
+	}
+
+	/**
+	 * 
+	 * @param typeLiterals
+	 * @param parallelism
+	 */
+	private static void staticGenDecodersSupp(TypeLiteral[] typeLiterals, int parallelism) {
+		if (parallelism <= 1) {
+			for (TypeLiteral typeLiteral : typeLiterals) {
+				gen(typeLiteral.getDecoderCacheKey(), typeLiteral.getType());
+			}
+			return;
+		}
+		final Config config = JsoniterSpi.getCurrentConfig();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		ConcurrentMap<String, ClassInfo> sources = new ConcurrentHashMap<String, ClassInfo>();
+		deferredStaticSources = sources;
+		try {
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(typeLiterals.length);
+			for (TypeLiteral typeLiteral : typeLiterals) {
+				final String cacheKey = typeLiteral.getDecoderCacheKey();
+				final Type type = typeLiteral.getType();
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						JsoniterSpi.setCurrentConfig(config);
+						try {
+							gen(cacheKey, type);
+						} finally {
+							JsoniterSpi.clearCurrentConfig();
+						}
+						return null;
+					}
+				});
+			}
+			invokeAll(pool, tasks);
+			deferredStaticSources = null;
+			tasks.clear();
+			for (final Map.Entry<String, ClassInfo> entry : sources.entrySet()) {
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						JsoniterSpi.setCurrentConfig(config);
+						try {
+							String cacheKey = entry.getKey();
+							staticGen(cacheKey, genSupport(cacheKey, config.decodingMode(), entry.getValue()));
+						} finally {
+							JsoniterSpi.clearCurrentConfig();
+						}
+						return null;
+					}
+				});
+			}
+			invokeAll(pool, tasks);
+		} finally {
+			deferredStaticSources = null;
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * 
+	 * @param pool
+	 * @param tasks
+	 */
+	private static void invokeAll(ForkJoinPool pool, List<Callable<Void>> tasks) {
+		for (Future<Void> future : pool.invokeAll(tasks)) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new JsonException("interrupted during static codegen", e);
+			} catch (ExecutionException e) {
+				throw unwrap("static codegen", e);
+			}
 		}
 	}
 }
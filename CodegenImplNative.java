@@ -6,7 +6,8 @@ import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import com.jsoniter.any.Any;
@@ -28,217 +29,235 @@ class CodegenImplNative {
 	 */
 	static final String DECODEFOR = "decoder for ";
 	/**
-	 * String "null3"
+	 * must implement BooleanDecoder
 	 */
-	static final String NULL3 = "null3";
-
+	private static final String ERRB = "must implement Decoder.BooleanDecoder";
 	/**
-	 * String "null4"
+	 * must implement ShortDecoder
 	 */
-	static final String NULL4 = "null4";
+	private static final String ERRS = "must implement Decoder.ShortDecoder";
 	/**
-	 * Err1
+	 * must implement IntDecoder
 	 */
-	static final String ERR1 = "err1";
+	private static final String ERRI = "must implement Decoder.IntDecoder";
 	/**
-	 * Err2
+	 * must implement LongDecoder
 	 */
-	static final String ERR2 = "err2";
+	private static final String ERRL = "must implement Decoder.LongDecoder";
 	/**
-	 * Err3
+	 * must implement FloatDecoder
 	 */
-	static final String ERR3 = "err3";
+	private static final String ERRF = "must implement Decoder.FloatDecoder";
 	/**
-	 * Err4
+	 * must implement DoubleDecoder
 	 */
-	static final String ERR4 = "err4";
+	private static final String ERRD = "must implement Decoder.DoubleDecoder";
+
 	/**
-	 * must implement BooleanDecoder
+	 * default private constructor
 	 */
-	private static final String ERRB = "must implement Decoder.BooleanDecoder";
+	private CodegenImplNative() {
+	}
+
 	/**
-	 * must implement ShortDecoder
+	 * NATIVE_READS: native type -> inline read expression, immutable and
+	 * keyed by identity
 	 */
-	private static final String ERRS = "must implement Decoder.ShortDecoder";
+	final static Map<Class, String> NATIVE_READS = nativeReads();
 	/**
-	 * must implement IntDecoder
+	 * NATIVE_DECODERS: native type -> decoder, immutable and keyed by identity
 	 */
-	private static final String ERRI = "must implement Decoder.IntDecoder";
-
+	final static Map<Class, Decoder> NATIVE_DECODERS = nativeDecoders();
 	/**
-	 * default private constructor
+	 * String read through the StringCache
 	 */
-	private CodegenImplNative() {
-	}
-
+	static final String CACHEDSTRINGREAD = "com.jsoniter.CodegenNativeAccess.readString(iter)";
 	/**
-	 * NATIVE_READS = HashMap<String, String>()
+	 * String decoder through the StringCache
 	 */
-	final static Map<String, String> NATIVE_READS = new HashMap<String, String>() {
-		{
-			put("float", "iter.readFloat()");
-			put("double", "iter.readDouble()");
-			put("boolean", "iter.readBoolean()");
-			put("byte", "iter.readShort()");
-			put("short", "iter.readShort()");
-			put("int", "iter.readInt()");
-			put("char", "iter.readInt()");
-			put("long", "iter.readLong()");
-			put(Float.class.getName(), "(iter.readNull() ? null : java.lang.Float.valueOf(iter.readFloat()))");
-			put(Double.class.getName(), "(iter.readNull() ? null : java.lang.Double.valueOf(iter.readDouble()))");
-			put(Boolean.class.getName(), "(iter.readNull() ? null : java.lang.Boolean.valueOf(iter.readBoolean()))");
-			put(Byte.class.getName(), "(iter.readNull() ? null : java.lang.Byte.valueOf((byte)iter.readShort()))");
-			put(Character.class.getName(),
-					"(iter.readNull() ? null : java.lang.Character.valueOf((char)iter.readShort()))");
-			put(Short.class.getName(), "(iter.readNull() ? null : java.lang.Short.valueOf(iter.readShort()))");
-			put(Integer.class.getName(), "(iter.readNull() ? null : java.lang.Integer.valueOf(iter.readInt()))");
-			put(Long.class.getName(), "(iter.readNull() ? null : java.lang.Long.valueOf(iter.readLong()))");
-			put(BigDecimal.class.getName(), "iter.readBigDecimal()");
-			put(BigInteger.class.getName(), "iter.readBigInteger()");
-			put(String.class.getName(), "iter.readString()");
-			put(Object.class.getName(), "iter.read()");
-			put(Any.class.getName(), "iter.readAny()");
+	static final Decoder CACHEDSTRINGDECODER = new Decoder() {
+		@Override
+		public Object decode(JsonIterator iter) throws IOException {
+			return CodegenNativeAccess.readString(iter);
 		}
 	};
+
 	/**
-	 * NATIVE_DECODERS = HashMap<Class, Decoder>()
+	 * 
+	 * @return
 	 */
-	final static Map<Class, Decoder> NATIVE_DECODERS = new HashMap<Class, Decoder>() {
-		{
-			put(float.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator utero) throws IOException {
-					Float f = null;
-					if (utero.readNull()) {
-						f = null;
-					} else {
-						f = utero.readFloat();
-					}
-					return f == null ? null : f.floatValue();
-				}
-			});
-			put(Float.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readNull() ? null : iter.readFloat();
-				}
-			});
-			put(double.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readNull() ? null : iter.readDouble();
-				}
-			});
-			put(Double.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readNull() ? null : iter.readDouble();
-				}
-			});
-			put(boolean.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readBoolean();
-				}
-			});
-			put(Boolean.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readNull() ? null : iter.readBoolean();
-				}
-			});
-			put(byte.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return Byte.valueOf(Short.toString(iter.readShort()).getBytes()[0]);
-				}
-			});
-			put(Byte.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readNull() ? null : Short.toString(iter.readShort()).getBytes()[0];
-				}
-			});
-			put(short.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readShort();
-				}
-			});
-			put(Short.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readNull() ? null : iter.readShort();
-				}
-			});
-			put(int.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readInt();
-				}
-			});
-			put(Integer.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readNull() ? null : iter.readInt();
-				}
-			});
-			put(char.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return Integer.toString(iter.readInt()).charAt(0);
-				}
-			});
-			put(Character.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readNull() ? null : Integer.toString(iter.readInt()).charAt(0);
-				}
-			});
-			put(long.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readLong();
-				}
-			});
-			put(Long.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readNull() ? null : iter.readLong();
-				}
-			});
-			put(BigDecimal.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readBigDecimal();
-				}
-			});
-			put(BigInteger.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readBigInteger();
-				}
-			});
-			put(String.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readString();
-				}
-			});
-			put(Object.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.read();
-				}
-			});
-			put(Any.class, new Decoder() {
-				@Override
-				public Object decode(JsonIterator iter) throws IOException {
-					return iter.readAny();
-				}
-			});
-		}
-	};
+	private static Map<Class, String> nativeReads() {
+		Map<Class, String> reads = new IdentityHashMap<Class, String>();
+		reads.put(float.class, "iter.readFloat()");
+		reads.put(double.class, "iter.readDouble()");
+		reads.put(boolean.class, "iter.readBoolean()");
+		reads.put(byte.class, "com.jsoniter.CodegenNativeAccess.readByte(iter)");
+		reads.put(short.class, "iter.readShort()");
+		reads.put(int.class, "iter.readInt()");
+		reads.put(char.class, "com.jsoniter.CodegenNativeAccess.readChar(iter)");
+		reads.put(long.class, "iter.readLong()");
+		reads.put(Float.class, "(iter.readNull() ? null : java.lang.Float.valueOf(iter.readFloat()))");
+		reads.put(Double.class, "(iter.readNull() ? null : java.lang.Double.valueOf(iter.readDouble()))");
+		reads.put(Boolean.class, "(iter.readNull() ? null : java.lang.Boolean.valueOf(iter.readBoolean()))");
+		reads.put(Byte.class,
+				"(iter.readNull() ? null : java.lang.Byte.valueOf(com.jsoniter.CodegenNativeAccess.readByte(iter)))");
+		reads.put(Character.class,
+				"(iter.readNull() ? null : java.lang.Character.valueOf(com.jsoniter.CodegenNativeAccess.readChar(iter)))");
+		reads.put(Short.class, "(iter.readNull() ? null : java.lang.Short.valueOf(iter.readShort()))");
+		reads.put(Integer.class, "(iter.readNull() ? null : java.lang.Integer.valueOf(iter.readInt()))");
+		reads.put(Long.class, "(iter.readNull() ? null : java.lang.Long.valueOf(iter.readLong()))");
+		reads.put(BigDecimal.class, "iter.readBigDecimal()");
+		reads.put(BigInteger.class, "iter.readBigInteger()");
+		reads.put(String.class, "iter.readString()");
+		reads.put(Object.class, "iter.read()");
+		reads.put(Any.class, "iter.readAny()");
+		return Collections.unmodifiableMap(reads);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	private static Map<Class, Decoder> nativeDecoders() {
+		Map<Class, Decoder> decoders = new IdentityHashMap<Class, Decoder>();
+		decoders.put(float.class, new Decoder.FloatDecoder() {
+			@Override
+			public float decodeFloat(JsonIterator iter) throws IOException {
+				return iter.readFloat();
+			}
+		});
+		decoders.put(Float.class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return iter.readNull() ? null : iter.readFloat();
+			}
+		});
+		decoders.put(double.class, new Decoder.DoubleDecoder() {
+			@Override
+			public double decodeDouble(JsonIterator iter) throws IOException {
+				return iter.readDouble();
+			}
+		});
+		decoders.put(Double.class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return iter.readNull() ? null : iter.readDouble();
+			}
+		});
+		decoders.put(boolean.class, new Decoder.BooleanDecoder() {
+			@Override
+			public boolean decodeBoolean(JsonIterator iter) throws IOException {
+				return iter.readBoolean();
+			}
+		});
+		decoders.put(Boolean.class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return iter.readNull() ? null : iter.readBoolean();
+			}
+		});
+		decoders.put(byte.class, new Decoder.ShortDecoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return Byte.valueOf(CodegenNativeAccess.readByte(iter));
+			}
+
+			@Override
+			public short decodeShort(JsonIterator iter) throws IOException {
+				return CodegenNativeAccess.readByte(iter);
+			}
+		});
+		decoders.put(Byte.class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return iter.readNull() ? null : Byte.valueOf(CodegenNativeAccess.readByte(iter));
+			}
+		});
+		decoders.put(short.class, new Decoder.ShortDecoder() {
+			@Override
+			public short decodeShort(JsonIterator iter) throws IOException {
+				return iter.readShort();
+			}
+		});
+		decoders.put(Short.class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return iter.readNull() ? null : iter.readShort();
+			}
+		});
+		decoders.put(int.class, new Decoder.IntDecoder() {
+			@Override
+			public int decodeInt(JsonIterator iter) throws IOException {
+				return iter.readInt();
+			}
+		});
+		decoders.put(Integer.class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return iter.readNull() ? null : iter.readInt();
+			}
+		});
+		decoders.put(char.class, new Decoder.IntDecoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return Character.valueOf(CodegenNativeAccess.readChar(iter));
+			}
+
+			@Override
+			public int decodeInt(JsonIterator iter) throws IOException {
+				return CodegenNativeAccess.readChar(iter);
+			}
+		});
+		decoders.put(Character.class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return iter.readNull() ? null : Character.valueOf(CodegenNativeAccess.readChar(iter));
+			}
+		});
+		decoders.put(long.class, new Decoder.LongDecoder() {
+			@Override
+			public long decodeLong(JsonIterator iter) throws IOException {
+				return iter.readLong();
+			}
+		});
+		decoders.put(Long.class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return iter.readNull() ? null : iter.readLong();
+			}
+		});
+		decoders.put(BigDecimal.class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return iter.readBigDecimal();
+			}
+		});
+		decoders.put(BigInteger.class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return iter.readBigInteger();
+			}
+		});
+		decoders.put(String.class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return iter.readString();
+			}
+		});
+		decoders.put(Object.class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return iter.read();
+			}
+		});
+		decoders.put(Any.class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				return iter.readAny();
+			}
+		});
+		return Collections.unmodifiableMap(decoders);
+	}
 
 	/**
 	 * genReadOp.
@@ -291,22 +310,17 @@ class CodegenImplNative {
 
 	/**
 	 * 
-	 * @param d
-	 * @param t1
-	 * @param t2
-	 * @param t
-	 * @return
+	 * @param valueType
+	 * @return the inline read expression, null if the type has none
 	 */
-	private static String limitStatements(Decoder d, boolean t1, boolean t2, Class t) {
-		String s = "null1";
-		if (d == null && t1) {
-			Class clazz = t;
-			String nativeRead = NATIVE_READS.get(clazz.getCanonicalName());
-			if (nativeRead != null) {
-				s = nativeRead;
-			}
-		} else if (t2) {
-			s = NATIVE_READS.get(Object.class.getCanonicalName());
+	private static String limitStatements(Type valueType) {
+		String s = null;
+		if (valueType == String.class && CodegenOptions.isStringCache()) {
+			s = CACHEDSTRINGREAD;
+		} else if (valueType instanceof Class) {
+			s = NATIVE_READS.get(valueType);
+		} else if (valueType instanceof WildcardType) {
+			s = NATIVE_READS.get(Object.class);
 		}
 		return s;
 	}
@@ -330,15 +344,17 @@ class CodegenImplNative {
 
 	/**
 	 * 
+	 * @param implemented
+	 * @param read
+	 * @param cK
 	 * @param err
-	 * @param toReturn
-	 * @param cacheKey
-	 * @param print
+	 * @return
 	 */
-	private static void limitStatement3If(String err, String toReturn, String cacheKey, String print) {
-		if (err.equals(toReturn)) {
-			throw new JsonException(DECODEFOR + cacheKey + print);
+	private static String limitStatements3(boolean implemented, String read, String cK, String err) {
+		if (!implemented) {
+			throw new JsonException(DECODEFOR + cK + " " + err);
 		}
+		return String.format("com.jsoniter.CodegenAccess.%s(\"%s\", iter)", read, cK);
 	}
 
 	/**
@@ -346,42 +362,63 @@ class CodegenImplNative {
 	 * @param vT
 	 * @param d
 	 * @param cK
-	 * @return
+	 * @return the unboxed read through the registered decoder, null if vT is
+	 *         not a primitive
 	 */
-	private static String limitStatements4(boolean b1, boolean b2, boolean b3, boolean b4, Decoder d, String cK) {
-		boolean ist = (d instanceof Decoder.IntDecoder);
-		String s = b1 ? ist == false ? ERR1 : String.format("com.jsoniter.CodegenAccess.readInt(\"%s\", iter)", cK) : NULL4;
-		String err = "must implement Decoder.IntDecoder";
-		limitStatement3If(ERR1,s,cK, err);
-		if (b2) {
-			s = limitStatements5(d, s, cK, err);
+	private static String limitStatements4(Type vT, Decoder d, String cK) {
+		String s = null;
+		if (vT == boolean.class) {
+			s = limitStatements3(d instanceof Decoder.BooleanDecoder, "readBoolean", cK, ERRB);
+		} else if (vT == byte.class || vT == short.class) {
+			s = limitStatements3(d instanceof Decoder.ShortDecoder, "readShort", cK, ERRS);
+		} else if (vT == char.class || vT == int.class) {
+			s = limitStatements3(d instanceof Decoder.IntDecoder, "readInt", cK, ERRI);
+		} else {
+			s = limitStatements5(vT, d, cK);
 		}
-		err = "must implement Decoder.LongDecoder";
-		ist = (d instanceof Decoder.FloatDecoder);
-		s = b3 ? ist == false ? ERR3 : String.format("com.jsoniter.CodegenAccess.readFloat(\"%s\", iter)", cK) : NULL4;
-		err = "must implement Decoder.FloatDecoder";
-		limitStatement3If(ERR3,s,cK, err);
-		ist = (d instanceof Decoder.DoubleDecoder);
-		s = b4 ? ist == false ? ERR4 : String.format("com.jsoniter.CodegenAccess.readDouble(\"%s\", iter)", cK) : NULL4;
-		err = "must implement Decoder.DoubleDecoder";
-		limitStatement3If(ERR4,s,cK, err);	
 		return s;
 	}
+
 	/**
 	 * 
+	 * @param vT
 	 * @param d
-	 * @param s
 	 * @param cK
-	 * @param err
 	 * @return
 	 */
-	private static String limitStatements5(Decoder d, String s, String cK, String err) {
-		String toRet = "void";
-			if ((d instanceof Decoder.LongDecoder) == false) {
-				limitStatement3If(ERR2, s, cK, err);
-			}
-			toRet = String.format("com.jsoniter.CodegenAccess.readLong(\"%s\", iter)", cK);
-		return toRet;
+	private static String limitStatements5(Type vT, Decoder d, String cK) {
+		String s = null;
+		if (vT == long.class) {
+			s = limitStatements3(d instanceof Decoder.LongDecoder, "readLong", cK, ERRL);
+		} else if (vT == float.class) {
+			s = limitStatements3(d instanceof Decoder.FloatDecoder, "readFloat", cK, ERRF);
+		} else if (vT == double.class) {
+			s = limitStatements3(d instanceof Decoder.DoubleDecoder, "readDouble", cK, ERRD);
+		}
+		return s;
+	}
+
+	/**
+	 * the native decoders behave exactly like the inline native reads
+	 * 
+	 * @param d
+	 * @param vT
+	 * @return
+	 */
+	private static boolean isNativeDecoder(Decoder d, Type vT) {
+		return vT instanceof Class && (d == NATIVE_DECODERS.get(vT) || vT == String.class && d == CACHEDSTRINGDECODER);
+	}
+
+	/**
+	 * 
+	 * @param clazz
+	 * @return the native decoder of the class, null if it has none
+	 */
+	static Decoder nativeDecoder(Class clazz) {
+		if (clazz == String.class && CodegenOptions.isStringCache()) {
+			return CACHEDSTRINGDECODER;
+		}
+		return NATIVE_DECODERS.get(clazz);
 	}
 
 	/**
@@ -393,8 +430,6 @@ class CodegenImplNative {
 	private static String genReadOp(String cacheKey, Type valueType) {
 		// the field decoder might be registered directly
 		Decoder decoder = JsoniterSpi.getDecoder(cacheKey);
-		String toReturn1 = "null1";
-		String toReturn2 = "null2";
 		String cK = cacheKey; // Avoid modifications on method or constructor parameters
 		if (decoder == null) {
 			// if cache key is for field, and there is no field decoder
@@ -402,37 +437,17 @@ class CodegenImplNative {
 			// update cache key for normal type
 			cK = TypeLiteral.create(valueType).getDecoderCacheKey();
 			decoder = JsoniterSpi.getDecoder(cK);
-			boolean b1 = valueType instanceof Class;
-			boolean b2 = (valueType instanceof WildcardType);
-			if (valueType instanceof Class) {
-				toReturn1 = limitStatements(decoder, b1, b2, (Class) valueType);
+			String nativeRead = decoder == null || isNativeDecoder(decoder, valueType) ? limitStatements(valueType)
+					: null;
+			if (nativeRead != null) {
+				return nativeRead;
+			}
+			if (decoder == null) {
+				return limitStatements2(cK);
 			}
-			toReturn2 = limitStatements2(cK);
 		}
-		String toReturn3 = cyclomaticSupp((valueType == boolean.class), ((decoder instanceof Decoder.BooleanDecoder) == false),ERR1, String.format("com.jsoniter.CodegenAccess.readBoolean(\"%s\", iter)", cK), NULL3);
-		limitStatement3If(ERR1,toReturn3,cK, ERRB);
-		toReturn3 = cyclomaticSupp((valueType == byte.class), ((decoder instanceof Decoder.ShortDecoder) == false), ERR2, String.format("com.jsoniter.CodegenAccess.readShort(\"%s\", iter)", cK), NULL3);	
-		limitStatement3If(ERR2,toReturn3,cK, ERRS);
-		toReturn3 = cyclomaticSupp((valueType == short.class), ((decoder instanceof Decoder.ShortDecoder) == false), ERR3, String.format("com.jsoniter.CodegenAccess.readShort(\"%s\", iter)", cK), NULL3);
-		limitStatement3If(ERR3,toReturn3,cK, ERRS);
-		toReturn3 = cyclomaticSupp((valueType == char.class),((decoder instanceof Decoder.IntDecoder) == false), ERR4, String.format("com.jsoniter.CodegenAccess.readInt(\"%s\", iter)", cK), NULL3);
-		limitStatement3If(ERR4,toReturn3,cK, ERRI);
-		return "null1".equals(toReturn1) ? "null2".equals(toReturn2) ? "null3".equals(toReturn3) ? "null4".equals(limitStatements4((valueType == int.class),(valueType == long.class),(valueType == float.class),(valueType == double.class), decoder, cK)) ? String.format("com.jsoniter.CodegenAccess.read(\"%s\", iter)", cK) : limitStatements4((valueType == int.class),(valueType == long.class),(valueType == float.class),(valueType == double.class), decoder, cK) : toReturn3 : toReturn2 : toReturn1;
-	}
-	
-	/**
-	 * 
-	 * @param b1
-	 * @param b2
-	 * @param err
-	 * @param ok
-	 * @param nullo
-	 * @return
-	 */
-	private static String cyclomaticSupp(boolean b1, boolean b2, String err, String ok, String nullo) {
-		ERRB.length();
-		ERRS.length();
-		ERRI.length();
-		return b1?b2?err:ok:nullo;
+		String primitiveRead = limitStatements4(valueType, decoder, cK);
+		return primitiveRead == null ? String.format("com.jsoniter.CodegenAccess.read(\"%s\", iter)", cK)
+				: primitiveRead;
 	}
 }
@@ -0,0 +1,424 @@
+package com.jsoniter;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.jsoniter.spi.Binding;
+import com.jsoniter.spi.ClassDescriptor;
+import com.jsoniter.spi.JsoniterSpi;
+import com.jsoniter.spi.TypeLiteral;
+
+/**
+ * class CodegenImplObjectTrie: object decoders dispatching on the field name
+ * bytes, first on the length, then byte by byte. Every byte of a known name is
+ * compared, so unlike the hash dispatch a name can never be mistaken for
+ * another. Only simple classes are supported: a public no-argument
+ * constructor, and public fields or setters bound without wrappers. When
+ * decoding into an existing object, object, collection and map fields are
+ * decoded into their current value when it is of the class their decoder
+ * creates, and bindings absent from the input are reset to the value of a new
+ * instance.
+ * 
+ * @author MaxiBon
+ *
+ */
+class CodegenImplObjectTrie {
+	/**
+	 * UTF-8
+	 */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	/**
+	 * from this many different bytes at one position a switch is emitted
+	 * instead of a chain of ifs
+	 */
+	private static final int MINSWITCHCASES = 4;
+
+	/**
+	 * default private constructor
+	 */
+	private CodegenImplObjectTrie() {
+	}
+
+	/**
+	 * 
+	 * @param desc
+	 * @return whether genObjectUsingTrie can decode the class
+	 */
+	static boolean isSupported(ClassDescriptor desc) {
+		boolean supported = Modifier.isPublic(desc.clazz.getModifiers()) && desc.ctor != null
+				&& desc.ctor.ctor != null && Modifier.isPublic(desc.ctor.ctor.getModifiers())
+				&& desc.ctor.staticFactory == null && desc.ctor.objectFactory == null
+				&& desc.ctor.parameters.isEmpty() && desc.bindingTypeWrappers.isEmpty()
+				&& desc.keyValueTypeWrappers.isEmpty();
+		if (supported) {
+			for (Binding binding : desc.allDecoderBindings()) {
+				if (binding.field != null) {
+					supported &= Modifier.isPublic(binding.field.getModifiers())
+							&& !Modifier.isFinal(binding.field.getModifiers());
+				} else {
+					supported &= binding.method != null && Modifier.isPublic(binding.method.getModifiers());
+				}
+			}
+		}
+		return supported;
+	}
+
+	/**
+	 * 
+	 * @param desc
+	 * @return the number of distinct field names
+	 */
+	static int countFieldNames(ClassDescriptor desc) {
+		return bindingsByName(desc).size();
+	}
+
+	/**
+	 * 
+	 * @param desc
+	 * @return whether two field names share the hash
+	 *         CodegenImplObjectHash switches on, or one hashes to 0
+	 */
+	static boolean hasHashCollision(ClassDescriptor desc) {
+		Set<Integer> hashes = new HashSet<Integer>();
+		for (String name : bindingsByName(desc).keySet()) {
+			int hash = hash(name);
+			if (hash == 0 || !hashes.add(hash)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * FNV-1a, as computed by CodegenAccess.readObjectFieldAsHash
+	 * 
+	 * @param name
+	 * @return
+	 */
+	private static int hash(String name) {
+		long hash = 0x811c9dc5;
+		for (byte b : name.getBytes(UTF8)) {
+			hash ^= b;
+			hash *= 0x1000193;
+		}
+		return (int) hash;
+	}
+
+	/**
+	 * 
+	 * @param desc
+	 * @return the bindings by encoded field name, sorted
+	 */
+	private static Map<String, Binding> bindingsByName(ClassDescriptor desc) {
+		Map<String, Binding> bindings = new TreeMap<String, Binding>();
+		for (Binding binding : desc.allDecoderBindings()) {
+			for (String fromName : binding.fromNames) {
+				bindings.put(fromName, binding);
+			}
+		}
+		return bindings;
+	}
+
+	/**
+	 * 
+	 * @param desc
+	 * @return
+	 */
+	static String genObjectUsingTrie(ClassDescriptor desc) {
+		String clazz = desc.clazz.getCanonicalName();
+		Map<Integer, List<Entry>> byLength = new TreeMap<Integer, List<Entry>>();
+		List<Binding> bindings = new ArrayList<Binding>();
+		for (Map.Entry<String, Binding> binding : bindingsByName(desc).entrySet()) {
+			byte[] name = binding.getKey().getBytes(UTF8);
+			List<Entry> entries = byLength.get(name.length);
+			if (entries == null) {
+				entries = new ArrayList<Entry>();
+				byLength.put(name.length, entries);
+			}
+			int index = bindings.indexOf(binding.getValue());
+			if (index < 0) {
+				index = bindings.size();
+				bindings.add(binding.getValue());
+			}
+			entries.add(new Entry(name, binding.getValue(), index));
+		}
+		StringBuilder lines = new StringBuilder();
+		lines.append("java.lang.Object existing = com.jsoniter.CodegenAccess.resetExistingObject(iter);\n");
+		lines.append("if (iter.readNull()) { return null; }\n");
+		lines.append(clazz).append(" obj = existing == null ? new ").append(clazz).append("() : (").append(clazz)
+				.append(")existing;\n");
+		for (int word = 0; word < words(bindings.size()); word++) {
+			lines.append("long seen").append(word).append(" = 0L;\n");
+		}
+		lines.append("if (com.jsoniter.CodegenAccess.readObjectStart(iter)) {\n");
+		lines.append("do {\n");
+		lines.append("com.jsoniter.spi.Slice field = com.jsoniter.CodegenAccess.readObjectFieldAsSlice(iter);\n");
+		lines.append("switch (field.len()) {\n");
+		for (Map.Entry<Integer, List<Entry>> entries : byLength.entrySet()) {
+			lines.append("case ").append(entries.getKey()).append(":\n");
+			genDispatch(lines, entries.getValue(), 0);
+			lines.append("break;\n");
+		}
+		lines.append("}\n");
+		lines.append("iter.skip();\n");
+		lines.append("} while (com.jsoniter.CodegenAccess.nextToken(iter) == ',');\n");
+		lines.append("}\n");
+		genResetAbsent(lines, clazz, bindings);
+		lines.append("return obj;\n");
+		return lines.toString();
+	}
+
+	/**
+	 * 
+	 * @param bindings
+	 * @return number of long words holding one seen bit per binding
+	 */
+	private static int words(int bindings) {
+		return (bindings + 63) >>> 6;
+	}
+
+	/**
+	 * 
+	 * @param bits
+	 * @return the long literal, in hex so that the sign bit needs no minus
+	 */
+	private static String hex(long bits) {
+		return "0x" + Long.toHexString(bits) + "L";
+	}
+
+	/**
+	 * decoding into an existing object must give what decoding into a new one
+	 * gives: the bindings absent from the input get the value of a new
+	 * instance, created only when one is missing
+	 * 
+	 * @param lines
+	 * @param clazz
+	 * @param bindings
+	 */
+	private static void genResetAbsent(StringBuilder lines, String clazz, List<Binding> bindings) {
+		if (bindings.isEmpty()) {
+			return;
+		}
+		lines.append("if (existing != null && (");
+		for (int word = 0; word < words(bindings.size()); word++) {
+			int bits = Math.min(64, bindings.size() - (word << 6));
+			long all = bits == 64 ? -1L : (1L << bits) - 1;
+			if (word > 0) {
+				lines.append(" || ");
+			}
+			lines.append("seen").append(word).append(" != ").append(hex(all));
+		}
+		lines.append(")) {\n");
+		lines.append(clazz).append(" fresh = new ").append(clazz).append("();\n");
+		for (int i = 0; i < bindings.size(); i++) {
+			String value = freshValue(bindings.get(i));
+			if (value == null) {
+				continue;
+			}
+			lines.append("if ((seen").append(i >>> 6).append(" & ").append(hex(1L << (i & 63))).append(") == 0L) { ");
+			Binding binding = bindings.get(i);
+			if (binding.field != null) {
+				lines.append("obj.").append(binding.field.getName()).append(" = ").append(value).append(";");
+			} else {
+				lines.append("obj.").append(binding.method.getName()).append("(").append(value).append(");");
+			}
+			lines.append(" }\n");
+		}
+		lines.append("}\n");
+	}
+
+	/**
+	 * 
+	 * @param binding
+	 * @return the expression reading the binding from the new instance, null
+	 *         when a setter has no matching public getter to read it with
+	 */
+	private static String freshValue(Binding binding) {
+		if (binding.field != null) {
+			return "fresh." + binding.field.getName();
+		}
+		Method setter = binding.method;
+		if (setter.getParameterTypes().length != 1 || !setter.getName().startsWith("set")) {
+			return null;
+		}
+		Class type = setter.getParameterTypes()[0];
+		String property = setter.getName().substring(3);
+		for (String prefix : new String[] { "get", "is" }) {
+			try {
+				Method getter = setter.getDeclaringClass().getMethod(prefix + property);
+				if (getter.getReturnType() == type) {
+					return "fresh." + getter.getName() + "()";
+				}
+			} catch (NoSuchMethodException e) {
+				// try the next prefix
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * emits the dispatch of names of the same length whose first depth bytes
+	 * are already matched
+	 * 
+	 * @param lines
+	 * @param entries
+	 * @param depth
+	 */
+	private static void genDispatch(StringBuilder lines, List<Entry> entries, int depth) {
+		if (entries.size() == 1) {
+			Entry entry = entries.get(0);
+			if (depth < entry.name.length) {
+				lines.append("if (");
+				for (int i = depth; i < entry.name.length; i++) {
+					if (i > depth) {
+						lines.append(" && ");
+					}
+					lines.append("field.at(").append(i).append(") == ").append(entry.name[i]);
+				}
+				lines.append(") {\n");
+				genSet(lines, entry);
+				lines.append("}\n");
+			} else {
+				genSet(lines, entry);
+			}
+			return;
+		}
+		Map<Byte, List<Entry>> byByte = new TreeMap<Byte, List<Entry>>();
+		for (Entry entry : entries) {
+			List<Entry> group = byByte.get(entry.name[depth]);
+			if (group == null) {
+				group = new ArrayList<Entry>();
+				byByte.put(entry.name[depth], group);
+			}
+			group.add(entry);
+		}
+		if (byByte.size() >= MINSWITCHCASES) {
+			lines.append("switch (field.at(").append(depth).append(")) {\n");
+			for (Map.Entry<Byte, List<Entry>> group : byByte.entrySet()) {
+				lines.append("case ").append(group.getKey()).append(":\n");
+				genDispatch(lines, group.getValue(), depth + 1);
+				lines.append("break;\n");
+			}
+			lines.append("}\n");
+		} else {
+			for (Map.Entry<Byte, List<Entry>> group : byByte.entrySet()) {
+				lines.append("if (field.at(").append(depth).append(") == ").append(group.getKey()).append(") {\n");
+				genDispatch(lines, group.getValue(), depth + 1);
+				lines.append("}\n");
+			}
+		}
+	}
+
+	/**
+	 * emits the assignment of the field value, then reads the next field
+	 * 
+	 * @param lines
+	 * @param entry
+	 */
+	private static void genSet(StringBuilder lines, Entry entry) {
+		Binding binding = entry.binding;
+		lines.append("seen").append(entry.index >>> 6).append(" |= ").append(hex(1L << (entry.index & 63)))
+				.append(";\n");
+		Class impl = reusableImpl(binding);
+		if (impl != null) {
+			// decoding into an existing object: decode the field into its value
+			// when it is what the field decoder creates, and the field decoder
+			// (maybe not generated yet) resets what the input does not hold
+			String field = binding.field.getName();
+			String typeCacheKey = TypeLiteral.create(binding.valueType).getDecoderCacheKey();
+			lines.append("if (existing != null && obj.").append(field).append(" != null && obj.").append(field)
+					.append(".getClass() == ").append(impl.getCanonicalName())
+					.append(".class && com.jsoniter.CodegenNativeAccess.resetsAbsentFields(\"").append(typeCacheKey)
+					.append("\")) { com.jsoniter.CodegenAccess.setExistingObject(iter, obj.").append(field)
+					.append("); }\n");
+			lines.append("obj.").append(field).append(" = ").append(CodegenImplNative.genField(binding))
+					.append(";\n");
+			// not left behind for the next decoder if the field decoder ignored it
+			lines.append("if (existing != null) { com.jsoniter.CodegenAccess.resetExistingObject(iter); }\n");
+		} else if (binding.field != null) {
+			lines.append("obj.").append(binding.field.getName()).append(" = ")
+					.append(CodegenImplNative.genField(binding)).append(";\n");
+		} else {
+			lines.append("obj.").append(binding.method.getName()).append("(")
+					.append(CodegenImplNative.genField(binding)).append(");\n");
+		}
+		lines.append("continue;\n");
+	}
+
+	/**
+	 * 
+	 * @param binding
+	 * @return the class the field decoder creates when the field value may be
+	 *         decoded into, null otherwise: no field decoder is registered and
+	 *         the class is concrete, outside java.lang and java.math.
+	 *         Collection and map interfaces are resolved to their
+	 *         implementation.
+	 */
+	private static Class reusableImpl(Binding binding) {
+		if (binding.field == null || binding.decoder != null) {
+			return null;
+		}
+		Class type = binding.field.getType();
+		if (type.isPrimitive() || type.isArray() || type.isEnum() || CodegenImplNative.NATIVE_READS.containsKey(type)
+				|| CodegenOptions.isLazy(type)) {
+			return null;
+		}
+		Class impl;
+		try {
+			Type implType = Codegen.chooseImpl(binding.valueType);
+			impl = implType instanceof ParameterizedType ? (Class) ((ParameterizedType) implType).getRawType()
+					: implType instanceof Class ? (Class) implType : null;
+		} catch (IllegalArgumentException e) {
+			// raw collection, its decoder reports it
+			return null;
+		}
+		if (impl == null || impl.isInterface() || Modifier.isAbstract(impl.getModifiers())) {
+			return null;
+		}
+		String name = impl.getName();
+		return !name.startsWith("java.lang.") && !name.startsWith("java.math.")
+				&& JsoniterSpi.getDecoder(binding.decoderCacheKey()) == null ? impl : null;
+	}
+
+	/**
+	 * class Entry: an encoded field name and its binding
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	private static class Entry {
+		/**
+		 * encoded name
+		 */
+		final byte[] name;
+		/**
+		 * binding
+		 */
+		final Binding binding;
+		/**
+		 * index of the binding in the seen bits
+		 */
+		final int index;
+
+		/**
+		 * 
+		 * @param name
+		 * @param binding
+		 * @param index
+		 */
+		Entry(byte[] name, Binding binding, int index) {
+			this.name = name;
+			this.binding = binding;
+			this.index = index;
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package com.jsoniter;
+
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Vector;
+
+import com.jsoniter.spi.ClassInfo;
+
+/**
+ * class CodegenImplSizedCollection: collection and map decoders that create
+ * their target with the capacity learned by {@link CollectionSizeHints}. The
+ * hint is resolved once, into a static field of the generated class.
+ * 
+ * @author MaxiBon
+ *
+ */
+class CodegenImplSizedCollection {
+	/**
+	 * implementations whose int constructor takes the number of elements
+	 */
+	private static final Class[] SIZED = { ArrayList.class, Vector.class, ArrayDeque.class, IntArrayList.class,
+			LongArrayList.class, StringLongHashMap.class };
+	/**
+	 * implementations whose int constructor takes the hash table capacity
+	 */
+	private static final Class[] HASHED = { HashSet.class, LinkedHashSet.class, HashMap.class,
+			LinkedHashMap.class };
+
+	/**
+	 * static field of the generated class holding the hint
+	 */
+	private static final String HINTFIELD = "SIZEHINT";
+
+	/**
+	 * default private constructor
+	 */
+	private CodegenImplSizedCollection() {
+	}
+
+	/**
+	 * 
+	 * @param clazz
+	 * @return the Hint method giving the constructor argument, null when the
+	 *         class can not be presized
+	 */
+	private static String capacityMethod(Class clazz) {
+		for (Class c : SIZED) {
+			if (c == clazz) {
+				return "capacity";
+			}
+		}
+		for (Class c : HASHED) {
+			if (c == clazz) {
+				return "hashCapacity";
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 *            of a decoder genCollection or genMap gave the source of
+	 * @return the declaration of the static field decode_ reads its hint
+	 *         from
+	 */
+	static String genHintField(String cacheKey) {
+		return "private static final com.jsoniter.CollectionSizeHints.Hint " + HINTFIELD
+				+ " = com.jsoniter.CollectionSizeHints.of(\"" + cacheKey + "\");\n";
+	}
+
+	/**
+	 * 
+	 * @param classInfo
+	 * @return the source, which reads its hint from the field genHintField
+	 *         declares, or null to use the default collection decoder
+	 */
+	static String genCollection(ClassInfo classInfo) {
+		String capacityMethod = capacityMethod(classInfo.clazz);
+		if (!CodegenOptions.isPresizeCollections() || capacityMethod == null) {
+			return null;
+		}
+		Type compType = classInfo.typeArgs[0];
+		StringBuilder lines = new StringBuilder();
+		genTarget(lines, classInfo.clazz.getName(), capacityMethod);
+		lines.append("if (!com.jsoniter.CodegenAccess.readArrayStart(iter)) { return col; }\n");
+		lines.append("do {\n");
+		lines.append("col.add(").append(CodegenImplNative.genReadOp(compType)).append(");\n");
+		lines.append("} while (com.jsoniter.CodegenAccess.nextToken(iter) == ',');\n");
+		lines.append(HINTFIELD).append(".record(col.size());\n");
+		lines.append("return col;\n");
+		return lines.toString();
+	}
+
+	/**
+	 * only maps with String keys are handled, the others keep the default map
+	 * decoder and its key decoders
+	 * 
+	 * @param classInfo
+	 * @return the source, which reads its hint from the field genHintField
+	 *         declares, or null to use the default map decoder
+	 */
+	static String genMap(ClassInfo classInfo) {
+		String capacityMethod = capacityMethod(classInfo.clazz);
+		if (!CodegenOptions.isPresizeCollections() || capacityMethod == null || classInfo.typeArgs.length != 2
+				|| classInfo.typeArgs[0] != String.class) {
+			return null;
+		}
+		Type valueType = classInfo.typeArgs[1];
+		StringBuilder lines = new StringBuilder();
+		genTarget(lines, classInfo.clazz.getName(), capacityMethod);
+		lines.append("if (!com.jsoniter.CodegenAccess.readObjectStart(iter)) { return col; }\n");
+		lines.append("do {\n");
+		lines.append("java.lang.String mapKey = com.jsoniter.")
+				.append(CodegenOptions.isStringCache() ? "CodegenNativeAccess" : "CodegenAccess")
+				.append(".readObjectFieldAsString(iter);\n");
+		lines.append("col.put(mapKey, ").append(CodegenImplNative.genReadOp(valueType)).append(");\n");
+		lines.append("} while (com.jsoniter.CodegenAccess.nextToken(iter) == ',');\n");
+		lines.append(HINTFIELD).append(".record(col.size());\n");
+		lines.append("return col;\n");
+		return lines.toString();
+	}
+
+	/**
+	 * reuses the existing object when decoding into one, otherwise creates
+	 * the target presized
+	 * 
+	 * @param lines
+	 * @param clazz
+	 * @param capacityMethod
+	 */
+	private static void genTarget(StringBuilder lines, String clazz, String capacityMethod) {
+		lines.append(clazz).append(" col = (").append(clazz)
+				.append(")com.jsoniter.CodegenAccess.resetExistingObject(iter);\n");
+		lines.append("if (iter.readNull()) { return null; }\n");
+		lines.append("if (col == null) {\n");
+		lines.append("int capacity = ").append(HINTFIELD).append('.').append(capacityMethod).append("();\n");
+		lines.append("col = capacity > 0 ? new ").append(clazz).append("(capacity) : new ").append(clazz)
+				.append("();\n");
+		lines.append("} else {\n");
+		lines.append("col.clear();\n");
+		lines.append("}\n");
+	}
+
+}
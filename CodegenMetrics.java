@@ -0,0 +1,341 @@
+package com.jsoniter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * class CodegenMetrics: per cacheKey cost of the decoder codegen, plus a
+ * listener to forward every codegen event to a metrics or flight recorder
+ * backend. A listener that throws is logged and never fails the codegen.
+ * 
+ * @author MaxiBon
+ *
+ */
+public final class CodegenMetrics {
+	/**
+	 * logger of the debug output and of the listener failures
+	 */
+	private static final Logger LOGGER = Logger.getLogger(CodegenMetrics.class.getName());
+	/**
+	 * cacheKey -> stats
+	 */
+	private static final ConcurrentMap<String, Stats> STATS = new ConcurrentHashMap<String, Stats>();
+	/**
+	 * whether decoder cache hits are counted, they are on every decode path
+	 */
+	private static volatile boolean countHits = false;
+	/**
+	 * receives every event, logs the sources when JSONITER_DEBUG is set
+	 */
+	private static volatile Listener listener = "true".equals(System.getenv("JSONITER_DEBUG")) ? new DebugListener()
+			: null;
+
+	/**
+	 * default private constructor
+	 */
+	private CodegenMetrics() {
+	}
+
+	/**
+	 * interface Listener, called on the thread doing the codegen
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	public interface Listener {
+		/**
+		 * 
+		 * @param cacheKey
+		 * @param source
+		 * @param nanos
+		 */
+		void onSourceGenerated(String cacheKey, String source, long nanos);
+
+		/**
+		 * 
+		 * @param cacheKey
+		 * @param nanos
+		 */
+		void onCompiled(String cacheKey, long nanos);
+
+		/**
+		 * 
+		 * @param cacheKey
+		 * @param nanos
+		 */
+		void onPlaceholderWait(String cacheKey, long nanos);
+	}
+
+	/**
+	 * class Stats
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	public static final class Stats {
+		/**
+		 * time spent generating source
+		 */
+		private final AtomicLong sourceNanos = new AtomicLong();
+		/**
+		 * time spent compiling
+		 */
+		private final AtomicLong compileNanos = new AtomicLong();
+		/**
+		 * time decoders spent parked on the placeholder
+		 */
+		private final AtomicLong placeholderWaitNanos = new AtomicLong();
+		/**
+		 * number of decodes parked on the placeholder
+		 */
+		private final AtomicLong placeholderWaits = new AtomicLong();
+		/**
+		 * getDecoder calls answered from the decoder cache
+		 */
+		private final AtomicLong hits = new AtomicLong();
+		/**
+		 * getDecoder calls that went to codegen
+		 */
+		private final AtomicLong misses = new AtomicLong();
+
+		/**
+		 * 
+		 * @return
+		 */
+		public long sourceNanos() {
+			return sourceNanos.get();
+		}
+
+		/**
+		 * 
+		 * @return
+		 */
+		public long compileNanos() {
+			return compileNanos.get();
+		}
+
+		/**
+		 * 
+		 * @return
+		 */
+		public long placeholderWaitNanos() {
+			return placeholderWaitNanos.get();
+		}
+
+		/**
+		 * 
+		 * @return
+		 */
+		public long placeholderWaits() {
+			return placeholderWaits.get();
+		}
+
+		/**
+		 * 
+		 * @return always 0 unless hits are counted
+		 */
+		public long hits() {
+			return hits.get();
+		}
+
+		/**
+		 * 
+		 * @return
+		 */
+		public long misses() {
+			return misses.get();
+		}
+
+		@Override
+		public String toString() {
+			return "source=" + sourceNanos() + "ns compile=" + compileNanos() + "ns placeholderWait="
+					+ placeholderWaitNanos() + "ns/" + placeholderWaits() + " hits=" + hits() + " misses=" + misses();
+		}
+	}
+
+	/**
+	 * class DebugListener: the former JSONITER_DEBUG output
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	private static final class DebugListener implements Listener {
+		@Override
+		public void onSourceGenerated(String cacheKey, String source, long nanos) {
+			LOGGER.log(Level.INFO, ">>> {0}\n{1}", new Object[] { cacheKey, source });
+		}
+
+		@Override
+		public void onCompiled(String cacheKey, long nanos) {
+		}
+
+		@Override
+		public void onPlaceholderWait(String cacheKey, long nanos) {
+		}
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @return the stats of cacheKey, null if it never went through codegen
+	 */
+	public static Stats get(String cacheKey) {
+		return STATS.get(cacheKey);
+	}
+
+	/**
+	 * 
+	 * @return cacheKey -> stats, live view
+	 */
+	public static Map<String, Stats> all() {
+		return Collections.unmodifiableMap(STATS);
+	}
+
+	/**
+	 * 
+	 * @param listener
+	 *            null to remove
+	 */
+	public static void setListener(Listener listener) {
+		CodegenMetrics.listener = listener;
+	}
+
+	/**
+	 * counting hits costs an atomic increment per getDecoder call, off by
+	 * default
+	 * 
+	 * @param countHits
+	 */
+	public static void setCountHits(boolean countHits) {
+		CodegenMetrics.countHits = countHits;
+	}
+
+	/**
+	 * 
+	 * @return number of generated classes known to codegen
+	 */
+	public static int generatedClasses() {
+		return Codegen.GENETATEDCLASSNAMES.size();
+	}
+
+	/**
+	 * 
+	 * @return generated code lookups that could call decode_ directly
+	 */
+	public static long staticAccessHits() {
+		return Codegen.GENETATEDCLASSNAMES.hits();
+	}
+
+	/**
+	 * 
+	 * @return generated code lookups that went through CodegenAccess.read
+	 */
+	public static long staticAccessMisses() {
+		return Codegen.GENETATEDCLASSNAMES.misses();
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @return
+	 */
+	private static Stats stats(String cacheKey) {
+		Stats stats = STATS.get(cacheKey);
+		if (stats == null) {
+			Stats newStats = new Stats();
+			stats = STATS.putIfAbsent(cacheKey, newStats);
+			if (stats == null) {
+				stats = newStats;
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 */
+	static void recordHit(String cacheKey) {
+		if (countHits) {
+			stats(cacheKey).hits.incrementAndGet();
+		}
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 */
+	static void recordMiss(String cacheKey) {
+		stats(cacheKey).misses.incrementAndGet();
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @param source
+	 * @param nanos
+	 */
+	static void recordSource(String cacheKey, String source, long nanos) {
+		stats(cacheKey).sourceNanos.addAndGet(nanos);
+		Listener current = listener;
+		if (current != null) {
+			try {
+				current.onSourceGenerated(cacheKey, source, nanos);
+			} catch (RuntimeException e) {
+				listenerFailed(cacheKey, e);
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @param nanos
+	 */
+	static void recordCompile(String cacheKey, long nanos) {
+		stats(cacheKey).compileNanos.addAndGet(nanos);
+		Listener current = listener;
+		if (current != null) {
+			try {
+				current.onCompiled(cacheKey, nanos);
+			} catch (RuntimeException e) {
+				listenerFailed(cacheKey, e);
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @param nanos
+	 */
+	static void recordPlaceholderWait(String cacheKey, long nanos) {
+		Stats stats = stats(cacheKey);
+		stats.placeholderWaitNanos.addAndGet(nanos);
+		stats.placeholderWaits.incrementAndGet();
+		Listener current = listener;
+		if (current != null) {
+			try {
+				current.onPlaceholderWait(cacheKey, nanos);
+			} catch (RuntimeException e) {
+				listenerFailed(cacheKey, e);
+			}
+		}
+	}
+
+	/**
+	 * the listener is a side channel, its failures must not abort the codegen
+	 * or leave a placeholder unpublished
+	 * 
+	 * @param cacheKey
+	 * @param e
+	 */
+	private static void listenerFailed(String cacheKey, RuntimeException e) {
+		LOGGER.log(Level.WARNING, "codegen listener failed for " + cacheKey, e);
+	}
+}
@@ -0,0 +1,171 @@
+package com.jsoniter;
+
+import java.io.IOException;
+
+/**
+ * class CodegenNativeAccess: range checked reads for the native types
+ * JsonIterator has no direct read for, and String reads through the
+ * StringCache, used by the native decoders and by generated code.
+ * 
+ * @author MaxiBon
+ *
+ */
+public final class CodegenNativeAccess {
+	/**
+	 * default private constructor
+	 */
+	private CodegenNativeAccess() {
+	}
+
+	/**
+	 * 
+	 * @param iter
+	 * @return
+	 * @throws IOException
+	 */
+	public static byte readByte(JsonIterator iter) throws IOException {
+		int value = iter.readInt();
+		if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+			throw iter.reportError("readByte", "value out of byte range");
+		}
+		return (byte) value;
+	}
+
+	/**
+	 * 
+	 * @param iter
+	 * @return
+	 * @throws IOException
+	 */
+	public static char readChar(JsonIterator iter) throws IOException {
+		int value = iter.readInt();
+		if (value < Character.MIN_VALUE || value > Character.MAX_VALUE) {
+			throw iter.reportError("readChar", "value out of char range");
+		}
+		return (char) value;
+	}
+
+	/**
+	 * readString through {@link StringCache}, used when
+	 * CodegenOptions.setStringCache is on. Strings with escapes, or not
+	 * entirely in the buffer, are left to iter.readString.
+	 * 
+	 * @param iter
+	 * @return
+	 * @throws IOException
+	 */
+	public static String readString(JsonIterator iter) throws IOException {
+		if (iter.readNull()) {
+			return null;
+		}
+		return readPlainOrEscaped(iter, "readString");
+	}
+
+	/**
+	 * object field name through {@link StringCache}, the ':' is consumed
+	 * 
+	 * @param iter
+	 * @return
+	 * @throws IOException
+	 */
+	public static String readObjectFieldAsString(JsonIterator iter) throws IOException {
+		String name = readPlainOrEscaped(iter, "readObjectFieldAsString");
+		if (CodegenAccess.nextToken(iter) != ':') {
+			throw iter.reportError("readObjectFieldAsString", "expect :");
+		}
+		return name;
+	}
+
+	/**
+	 * 
+	 * @param iter
+	 * @return a view over the input buffer when the string is plain ASCII,
+	 *         valid until the iterator moves on, otherwise a String; null for
+	 *         null
+	 * @throws IOException
+	 */
+	public static CharSequence readCharSequence(JsonIterator iter) throws IOException {
+		if (iter.readNull()) {
+			return null;
+		}
+		int start = openString(iter, "readCharSequence");
+		int end = plainEnd(iter, start);
+		if (end < 0) {
+			iter.head = start - 1;
+			return iter.readString();
+		}
+		iter.head = end + 1;
+		for (int i = start; i < end; i++) {
+			if (iter.buf[i] < 0) {
+				return StringCache.get(iter.buf, start, end - start);
+			}
+		}
+		return new ByteCharSequence(iter.buf, start, end - start);
+	}
+
+	/**
+	 * 
+	 * @param iter
+	 * @param op
+	 *            reported on errors
+	 * @return the string at the head, through the cache unless it has escapes
+	 * @throws IOException
+	 */
+	private static String readPlainOrEscaped(JsonIterator iter, String op) throws IOException {
+		int start = openString(iter, op);
+		int end = plainEnd(iter, start);
+		if (end < 0) {
+			// back to the opening quote, jsoniter resolves the escapes
+			iter.head = start - 1;
+			return iter.readString();
+		}
+		iter.head = end + 1;
+		return StringCache.get(iter.buf, start, end - start);
+	}
+
+	/**
+	 * 
+	 * @param iter
+	 * @param op
+	 * @return the position just after the opening quote
+	 * @throws IOException
+	 */
+	private static int openString(JsonIterator iter, String op) throws IOException {
+		if (CodegenAccess.nextToken(iter) != '"') {
+			throw iter.reportError(op, "expect string");
+		}
+		return iter.head;
+	}
+
+	/**
+	 * 
+	 * @param iter
+	 * @param start
+	 *            just after the opening quote
+	 * @return the position of the closing quote, -1 when a backslash comes
+	 *         first or the string goes past the buffer
+	 */
+	private static int plainEnd(JsonIterator iter, int start) {
+		byte[] buf = iter.buf;
+		for (int i = start; i < iter.tail; i++) {
+			byte b = buf[i];
+			if (b == '"') {
+				return i;
+			}
+			if (b == '\\') {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @return whether the decoder under cacheKey can decode into an existing
+	 *         object and give what decoding into a new one gives
+	 */
+	public static boolean resetsAbsentFields(String cacheKey) {
+		return Codegen.resetsAbsentFields(cacheKey);
+	}
+}
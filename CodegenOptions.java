@@ -0,0 +1,267 @@
+package com.jsoniter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * class CodegenOptions: process wide switches of the decoder codegen. They
+ * only affect decoders generated after they are changed, so set them before
+ * the first decode.
+ * 
+ * @author MaxiBon
+ *
+ */
+public final class CodegenOptions {
+	/**
+	 * directory of the on-disk cache of generated decoder classes, null when
+	 * disabled
+	 */
+	private static volatile String decoderCacheDir = System.getenv("JSONITER_DECODER_CACHE_DIR");
+	/**
+	 * List&lt;Integer&gt;, List&lt;Long&gt; and Map&lt;String, Long&gt; bind to
+	 * unboxed collections
+	 */
+	private static volatile boolean primitiveCollections = false;
+	/**
+	 * collection and map decoders create their target with a learned capacity
+	 */
+	private static volatile boolean presizeCollections = false;
+	/**
+	 * String values decode through the StringCache
+	 */
+	private static volatile boolean stringCache = false;
+	/**
+	 * stands for a null fallback in UNKNOWNENUMVALUES
+	 */
+	private static final Object NULLFALLBACK = new Object();
+	/**
+	 * value of the unknown constant names, by enum class
+	 */
+	private static final ConcurrentMap<Class, Object> UNKNOWNENUMVALUES = new ConcurrentHashMap<Class, Object>();
+	/**
+	 * field dispatch of the object decoders
+	 */
+	private static volatile FieldDispatch fieldDispatch = FieldDispatch.AUTO;
+	/**
+	 * field dispatch overrides, by class
+	 */
+	private static final ConcurrentMap<Class, FieldDispatch> FIELDDISPATCHES = new ConcurrentHashMap<Class, FieldDispatch>();
+	/**
+	 * interfaces decoded lazily
+	 */
+	private static final ConcurrentMap<Class, Boolean> LAZYINTERFACES = new ConcurrentHashMap<Class, Boolean>();
+
+	/**
+	 * enum FieldDispatch: how generated object decoders find the binding of a
+	 * field name. The decoding mode and the bindings can still require STRICT,
+	 * and TRIE is only used for classes it supports.
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	public enum FieldDispatch {
+		/**
+		 * chosen per class from its field count and hash collisions
+		 */
+		AUTO,
+		/**
+		 * switch on the hash of the field name
+		 */
+		HASH,
+		/**
+		 * the strict decoder, compares every field name
+		 */
+		STRICT,
+		/**
+		 * switch on the field name length, then on its bytes
+		 */
+		TRIE
+	}
+
+	/**
+	 * default private constructor
+	 */
+	private CodegenOptions() {
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public static String getDecoderCacheDir() {
+		return decoderCacheDir;
+	}
+
+	/**
+	 * enables the on-disk cache of dynamically generated decoder classes, so
+	 * later JVM starts load them instead of generating and compiling them
+	 * again. Defaults to the JSONITER_DECODER_CACHE_DIR environment variable.
+	 * 
+	 * @param dir
+	 *            null to disable the cache
+	 */
+	public static void setDecoderCacheDir(String dir) {
+		decoderCacheDir = dir;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public static boolean isPrimitiveCollections() {
+		return primitiveCollections;
+	}
+
+	/**
+	 * binds List&lt;Integer&gt; to {@link IntArrayList}, List&lt;Long&gt; to
+	 * {@link LongArrayList} and Map&lt;String, Long&gt; to
+	 * {@link StringLongHashMap} when no implementation is registered for List
+	 * or Map. The decoded values are still Lists and Maps, but elements are no
+	 * longer boxed one by one; null elements and values are rejected.
+	 * 
+	 * @param enabled
+	 */
+	public static void setPrimitiveCollections(boolean enabled) {
+		primitiveCollections = enabled;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public static boolean isPresizeCollections() {
+		return presizeCollections;
+	}
+
+	/**
+	 * makes the generated decoders of ArrayList, HashSet, HashMap and the
+	 * other collections with a capacity constructor create their target with
+	 * the size they usually decode, as learned by {@link CollectionSizeHints}.
+	 * Maps are only presized when their keys are Strings.
+	 * 
+	 * @param enabled
+	 */
+	public static void setPresizeCollections(boolean enabled) {
+		presizeCollections = enabled;
+	}
+
+	/**
+	 * makes unknown constant names of the enum decode to fallback instead of
+	 * failing
+	 * 
+	 * @param enumClass
+	 * @param fallback
+	 *            a constant of enumClass, or null
+	 */
+	public static <E extends Enum<E>> void setUnknownEnumValue(Class<E> enumClass, E fallback) {
+		UNKNOWNENUMVALUES.put(enumClass, fallback == null ? NULLFALLBACK : fallback);
+	}
+
+	/**
+	 * unknown constant names of the enum fail the decode again
+	 * 
+	 * @param enumClass
+	 */
+	public static void clearUnknownEnumValue(Class enumClass) {
+		UNKNOWNENUMVALUES.remove(enumClass);
+	}
+
+	/**
+	 * 
+	 * @param enumClass
+	 * @return
+	 */
+	static boolean hasUnknownEnumValue(Class enumClass) {
+		return UNKNOWNENUMVALUES.containsKey(enumClass);
+	}
+
+	/**
+	 * 
+	 * @param enumClass
+	 * @return the fallback of the unknown constant names, null when none
+	 */
+	static Object getUnknownEnumValue(Class enumClass) {
+		Object fallback = UNKNOWNENUMVALUES.get(enumClass);
+		return fallback == NULLFALLBACK ? null : fallback;
+	}
+
+	/**
+	 * 
+	 * @param dispatch
+	 *            field dispatch of the classes without an override
+	 */
+	public static void setFieldDispatch(FieldDispatch dispatch) {
+		fieldDispatch = dispatch == null ? FieldDispatch.AUTO : dispatch;
+	}
+
+	/**
+	 * 
+	 * @param clazz
+	 * @param dispatch
+	 *            null to remove the override
+	 */
+	public static void setFieldDispatch(Class clazz, FieldDispatch dispatch) {
+		if (dispatch == null) {
+			FIELDDISPATCHES.remove(clazz);
+		} else {
+			FIELDDISPATCHES.put(clazz, dispatch);
+		}
+	}
+
+	/**
+	 * 
+	 * @param clazz
+	 * @return
+	 */
+	public static FieldDispatch getFieldDispatch(Class clazz) {
+		FieldDispatch dispatch = FIELDDISPATCHES.get(clazz);
+		return dispatch == null ? fieldDispatch : dispatch;
+	}
+
+	/**
+	 * decodes the interface lazily: into a proxy that only skips over the
+	 * object while decoding, and decodes a field the first time its getter
+	 * (getX, isX or x) is called. Pays off when few of many fields are read.
+	 * 
+	 * @param iface
+	 * @param lazy
+	 */
+	public static void setLazy(Class iface, boolean lazy) {
+		if (!iface.isInterface()) {
+			throw new IllegalArgumentException("only interfaces can be decoded lazily: " + iface.getName());
+		}
+		if (lazy) {
+			LAZYINTERFACES.put(iface, Boolean.TRUE);
+		} else {
+			LAZYINTERFACES.remove(iface);
+		}
+	}
+
+	/**
+	 * 
+	 * @param clazz
+	 * @return
+	 */
+	public static boolean isLazy(Class clazz) {
+		return LAZYINTERFACES.containsKey(clazz);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public static boolean isStringCache() {
+		return stringCache;
+	}
+
+	/**
+	 * makes String values, and the keys of presized maps, decode through
+	 * {@link StringCache}: short repeated values decode to one canonical
+	 * instance instead of a new String each time.
+	 * 
+	 * @param enabled
+	 */
+	public static void setStringCache(boolean enabled) {
+		stringCache = enabled;
+	}
+}
@@ -0,0 +1,108 @@
+package com.jsoniter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * class CollectionSizeHints: sizes learned from previous decodes of each
+ * collection and map decoder, so the generated code can create its target with
+ * enough capacity instead of growing it while decoding. Generated classes
+ * look their hint up once, when they are initialized.
+ * 
+ * @author MaxiBon
+ *
+ */
+public final class CollectionSizeHints {
+	/**
+	 * largest capacity ever suggested, so one huge document does not make every
+	 * later decode allocate for it
+	 */
+	static final int MAXCAPACITY = 1 << 16;
+	/**
+	 * hints by decoder cache key
+	 */
+	private static final ConcurrentMap<String, Hint> HINTS = new ConcurrentHashMap<String, Hint>();
+
+	/**
+	 * default private constructor
+	 */
+	private CollectionSizeHints() {
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @return the hint of the decoder, never null
+	 */
+	public static Hint of(String cacheKey) {
+		Hint hint = HINTS.get(cacheKey);
+		if (hint == null) {
+			hint = new Hint();
+			Hint existing = HINTS.putIfAbsent(cacheKey, hint);
+			if (existing != null) {
+				hint = existing;
+			}
+		}
+		return hint;
+	}
+
+	/**
+	 * forgets every learned size. The hints themselves are kept, generated
+	 * classes hold on to them.
+	 */
+	public static void clear() {
+		for (Hint hint : HINTS.values()) {
+			hint.average = 0;
+		}
+	}
+
+	/**
+	 * class Hint: moving average of the decoded sizes. Updates are racy on
+	 * purpose, a lost sample only makes the hint a little less precise.
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	public static final class Hint {
+		/**
+		 * moving average of the decoded sizes, 0 before the first sample
+		 */
+		private volatile int average;
+
+		/**
+		 * Hint
+		 */
+		Hint() {
+		}
+
+		/**
+		 * 
+		 * @return the expected number of elements, 0 when unknown
+		 */
+		public int capacity() {
+			return average;
+		}
+
+		/**
+		 * 
+		 * @return the expected number of elements scaled for the default load
+		 *         factor of the java.util hash tables, 0 when unknown
+		 */
+		public int hashCapacity() {
+			int expected = average;
+			return expected == 0 ? 0 : expected + expected / 3 + 1;
+		}
+
+		/**
+		 * 
+		 * @param size
+		 *            the number of elements just decoded
+		 */
+		public void record(int size) {
+			int sample = Math.min(size, MAXCAPACITY);
+			int current = average;
+			// weighs the last sample 1/4, rounding up so a steady size is reached
+			average = current == 0 ? sample : current + (sample - current + 3) / 4;
+		}
+	}
+}
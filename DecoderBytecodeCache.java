@@ -0,0 +1,206 @@
+package com.jsoniter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.CodeSource;
+
+import com.jsoniter.spi.Decoder;
+
+/**
+ * class DecoderBytecodeCache: on-disk cache of the classes generated by
+ * DynamicCodegen. A class file is named after its cacheKey and a hash of the
+ * generated source and of the library. The source already reflects the class
+ * layout, the config, the options and the registered decoders, so a change in
+ * any of them is simply a cache miss; only the compilation is saved.
+ * 
+ * @author MaxiBon
+ *
+ */
+class DecoderBytecodeCache {
+	/**
+	 * bump whenever the generated source changes shape
+	 */
+	private static final int VERSION = 2;
+	/**
+	 * identity of the jsoniter library the classes were generated against
+	 */
+	private static final String LIBRARY = library();
+	/**
+	 * cache of the directory currently configured
+	 */
+	private static volatile DecoderBytecodeCache instance = null;
+	/**
+	 * cache directory
+	 */
+	private final File dir;
+	/**
+	 * loader of the cached classes
+	 */
+	private final Loader loader;
+
+	/**
+	 * 
+	 * @param dir
+	 */
+	private DecoderBytecodeCache(File dir) {
+		this.dir = dir;
+		ClassLoader parent = Thread.currentThread().getContextClassLoader();
+		this.loader = new Loader(parent == null ? Codegen.class.getClassLoader() : parent);
+	}
+
+	/**
+	 * 
+	 * @return the cache of CodegenOptions.getDecoderCacheDir(), null if disabled
+	 */
+	static DecoderBytecodeCache get() {
+		String path = CodegenOptions.getDecoderCacheDir();
+		if (path == null || path.length() == 0) {
+			return null;
+		}
+		DecoderBytecodeCache cache = instance;
+		if (cache == null || !cache.dir.getPath().equals(path)) {
+			File dir = new File(path);
+			dir.mkdirs();
+			cache = new DecoderBytecodeCache(dir);
+			instance = cache;
+		}
+		return cache;
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @param source
+	 *            generated for cacheKey
+	 * @return the file the class for cacheKey is cached in
+	 */
+	File file(String cacheKey, String source) {
+		return new File(dir, cacheKey + "-" + fingerprint(source) + ".class");
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @param file
+	 * @return the cached decoder, null on a cache miss
+	 */
+	Decoder load(String cacheKey, File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			byte[] bytecode = read(file);
+			return (Decoder) loader.define(cacheKey, bytecode).getDeclaredConstructor().newInstance();
+		} catch (Exception e) {
+			// corrupt or stale entry, generate again
+			file.delete();
+			return null;
+		} catch (LinkageError e) {
+			file.delete();
+			return null;
+		}
+	}
+
+	/**
+	 * stores the class DynamicCodegen just generated for cacheKey, failures
+	 * only cost the next start a cache miss
+	 * 
+	 * @param cacheKey
+	 * @param file
+	 */
+	void store(String cacheKey, File file) {
+		try {
+			byte[] bytecode = DynamicCodegen.pool.get(cacheKey).toBytecode();
+			File tmp = File.createTempFile("decoder", ".tmp", dir);
+			FileOutputStream out = new FileOutputStream(tmp);
+			try {
+				out.write(bytecode);
+			} finally {
+				out.close();
+			}
+			if (!tmp.renameTo(file)) {
+				tmp.delete();
+			}
+		} catch (Exception e) {
+			// not cached
+		}
+	}
+
+	/**
+	 * 
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	private static byte[] read(File file) throws IOException {
+		byte[] bytes = new byte[(int) file.length()];
+		FileInputStream in = new FileInputStream(file);
+		try {
+			int n = 0;
+			while (n < bytes.length) {
+				int read = in.read(bytes, n, bytes.length - n);
+				if (read < 0) {
+					throw new IOException("truncated " + file);
+				}
+				n += read;
+			}
+		} finally {
+			in.close();
+		}
+		return bytes;
+	}
+
+	/**
+	 * 
+	 * @param source
+	 * @return
+	 */
+	private static String fingerprint(String source) {
+		return StaticCodegenManifest.hash(VERSION + "\n" + LIBRARY + "\n" + source);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	private static String library() {
+		StringBuilder library = new StringBuilder();
+		Package pkg = Codegen.class.getPackage();
+		library.append(pkg == null ? null : pkg.getImplementationVersion());
+		CodeSource source = Codegen.class.getProtectionDomain().getCodeSource();
+		if (source != null && source.getLocation() != null) {
+			File location = new File(source.getLocation().getPath());
+			library.append(' ').append(source.getLocation()).append(' ').append(location.length()).append(' ')
+					.append(location.lastModified());
+		}
+		return library.toString();
+	}
+
+	/**
+	 * class Loader
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	private static final class Loader extends ClassLoader {
+		/**
+		 * 
+		 * @param parent
+		 */
+		Loader(ClassLoader parent) {
+			super(parent);
+		}
+
+		/**
+		 * 
+		 * @param name
+		 * @param bytecode
+		 * @return
+		 */
+		Class<?> define(String name, byte[] bytecode) {
+			return defineClass(name, bytecode, 0, bytecode.length);
+		}
+	}
+}
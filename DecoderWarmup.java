@@ -0,0 +1,319 @@
+package com.jsoniter;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import com.jsoniter.spi.Config;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.JsoniterSpi;
+import com.jsoniter.spi.TypeLiteral;
+
+/**
+ * class DecoderWarmup: generates the decoders of a set of types on a
+ * background executor at boot, so no request thread pays for codegen. The
+ * returned handle reports progress and lets a readiness probe wait for it.
+ * 
+ * @author MaxiBon
+ *
+ */
+public final class DecoderWarmup {
+	/**
+	 * number of types to warm up
+	 */
+	private final int total;
+	/**
+	 * number of types done, failed ones included
+	 */
+	private final AtomicInteger completed = new AtomicInteger();
+	/**
+	 * cacheKey -> failure
+	 */
+	private final ConcurrentMap<String, Throwable> failures = new ConcurrentHashMap<String, Throwable>();
+	/**
+	 * released when every type is done
+	 */
+	private final CountDownLatch done;
+
+	/**
+	 * 
+	 * @param total
+	 */
+	private DecoderWarmup(int total) {
+		this.total = total;
+		this.done = new CountDownLatch(total);
+	}
+
+	/**
+	 * warms up on a pool of daemon threads, one per core, shut down when done
+	 * 
+	 * @param typeLiterals
+	 * @return
+	 */
+	public static DecoderWarmup start(Collection<? extends TypeLiteral> typeLiterals) {
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+				new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "jsoniter-warmup-" + count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		try {
+			return start(typeLiterals, executor);
+		} finally {
+			// already submitted tasks still run
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * 
+	 * @param typeLiterals
+	 * @param executor
+	 * @return
+	 */
+	public static DecoderWarmup start(Collection<? extends TypeLiteral> typeLiterals, Executor executor) {
+		final DecoderWarmup warmup = new DecoderWarmup(typeLiterals.size());
+		// the config is thread local, the workers use the caller's one
+		final Config config = JsoniterSpi.getCurrentConfig();
+		for (TypeLiteral typeLiteral : typeLiterals) {
+			final String cacheKey = typeLiteral.getDecoderCacheKey();
+			final java.lang.reflect.Type type = typeLiteral.getType();
+			try {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						warmup.warm(config, cacheKey, type);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				warmup.failures.put(cacheKey, e);
+				warmup.completed.incrementAndGet();
+				warmup.done.countDown();
+			}
+		}
+		return warmup;
+	}
+
+	/**
+	 * 
+	 * @param config
+	 * @param cacheKey
+	 * @param type
+	 */
+	private void warm(Config config, String cacheKey, java.lang.reflect.Type type) {
+		// a caller supplied executor may run other work with its own config
+		Config previous = JsoniterSpi.getCurrentConfig();
+		JsoniterSpi.setCurrentConfig(config);
+		try {
+			Codegen.getDecoder(cacheKey, type);
+		} catch (RuntimeException e) {
+			failures.put(cacheKey, e);
+		} finally {
+			if (previous == JsoniterSpi.getDefaultConfig()) {
+				JsoniterSpi.clearCurrentConfig();
+			} else {
+				JsoniterSpi.setCurrentConfig(previous);
+			}
+			completed.incrementAndGet();
+			done.countDown();
+		}
+	}
+
+	/**
+	 * 
+	 * @param packageName
+	 * @return the decodable classes of the package and its sub packages
+	 */
+	public static List<TypeLiteral> scanPackage(String packageName) {
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		return scanPackage(packageName, loader == null ? DecoderWarmup.class.getClassLoader() : loader);
+	}
+
+	/**
+	 * 
+	 * @param packageName
+	 * @param loader
+	 * @return the decodable classes of the package and its sub packages, in
+	 *         name order
+	 */
+	public static List<TypeLiteral> scanPackage(String packageName, ClassLoader loader) {
+		String path = packageName.replace('.', '/');
+		TreeSet<String> classNames = new TreeSet<String>();
+		try {
+			Enumeration<URL> resources = loader.getResources(path);
+			while (resources.hasMoreElements()) {
+				URL url = resources.nextElement();
+				if ("file".equals(url.getProtocol())) {
+					scanDirectory(new File(url.toURI()), packageName, classNames);
+				} else {
+					scanJar(url, path, classNames);
+				}
+			}
+		} catch (IOException e) {
+			throw new JsonException("failed to scan package " + packageName, e);
+		} catch (URISyntaxException e) {
+			throw new JsonException("failed to scan package " + packageName, e);
+		}
+		List<TypeLiteral> typeLiterals = new ArrayList<TypeLiteral>();
+		for (String className : classNames) {
+			Class clazz = loadCandidate(className, loader);
+			if (clazz != null) {
+				typeLiterals.add(TypeLiteral.create(clazz));
+			}
+		}
+		return typeLiterals;
+	}
+
+	/**
+	 * 
+	 * @param dir
+	 * @param packageName
+	 * @param classNames
+	 */
+	private static void scanDirectory(File dir, String packageName, Collection<String> classNames) {
+		File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			String name = file.getName();
+			if (file.isDirectory()) {
+				scanDirectory(file, packageName + "." + name, classNames);
+			} else if (name.endsWith(".class")) {
+				classNames.add(packageName + "." + name.substring(0, name.length() - ".class".length()));
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @param url
+	 * @param path
+	 * @param classNames
+	 * @throws IOException
+	 */
+	private static void scanJar(URL url, String path, Collection<String> classNames) throws IOException {
+		URLConnection connection = url.openConnection();
+		if (!(connection instanceof JarURLConnection)) {
+			return;
+		}
+		JarFile jar = ((JarURLConnection) connection).getJarFile();
+		Enumeration<JarEntry> entries = jar.entries();
+		while (entries.hasMoreElements()) {
+			String name = entries.nextElement().getName();
+			if (name.startsWith(path + "/") && name.endsWith(".class")) {
+				classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @param className
+	 * @param loader
+	 * @return the class if it is a concrete, public, top level or static
+	 *         nested type, null otherwise
+	 */
+	private static Class loadCandidate(String className, ClassLoader loader) {
+		if (className.endsWith("package-info") || className.endsWith("module-info")) {
+			return null;
+		}
+		Class clazz;
+		try {
+			clazz = Class.forName(className, false, loader);
+		} catch (ClassNotFoundException e) {
+			return null;
+		} catch (LinkageError e) {
+			// depends on something not on the classpath
+			return null;
+		}
+		int modifiers = clazz.getModifiers();
+		if (clazz.isAnonymousClass() || clazz.isLocalClass() || clazz.isSynthetic() || clazz.isInterface()
+				|| !Modifier.isPublic(modifiers)) {
+			return null;
+		}
+		if (clazz.isMemberClass() && !Modifier.isStatic(modifiers)) {
+			return null;
+		}
+		return clazz.isEnum() || !Modifier.isAbstract(modifiers) ? clazz : null;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public int total() {
+		return total;
+	}
+
+	/**
+	 * 
+	 * @return number of types done, failed ones included
+	 */
+	public int completed() {
+		return completed.get();
+	}
+
+	/**
+	 * 
+	 * @return cacheKey -> failure of the types that could not be generated
+	 */
+	public Map<String, Throwable> failures() {
+		return Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public boolean isDone() {
+		return done.getCount() == 0;
+	}
+
+	/**
+	 * 
+	 * @throws InterruptedException
+	 */
+	public void await() throws InterruptedException {
+		done.await();
+	}
+
+	/**
+	 * 
+	 * @param timeout
+	 * @param unit
+	 * @return true if the warm up is done
+	 * @throws InterruptedException
+	 */
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+		return done.await(timeout, unit);
+	}
+}
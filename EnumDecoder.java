@@ -0,0 +1,187 @@
+package com.jsoniter;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import com.jsoniter.spi.Decoder;
+import com.jsoniter.spi.Slice;
+
+/**
+ * class EnumDecoder: decodes an enum by looking the raw bytes of the constant
+ * name up in a perfect hash table, no String is created. The table maps the
+ * same names as the generated enum decoders, the toString() of each constant.
+ * 
+ * @author MaxiBon
+ *
+ */
+class EnumDecoder implements Decoder {
+	/**
+	 * seeds tried for each table size before doubling it
+	 */
+	private static final int MAXSEEDS = 256;
+	/**
+	 * UTF-8
+	 */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	/**
+	 * enum class
+	 */
+	private final Class clazz;
+	/**
+	 * encoded names, by slot, null when the slot is free
+	 */
+	private final byte[][] names;
+	/**
+	 * constants, by slot
+	 */
+	private final Object[] constants;
+	/**
+	 * hash seed
+	 */
+	private final int seed;
+	/**
+	 * when false the table has collisions and is probed linearly
+	 */
+	private final boolean perfect;
+	/**
+	 * whether unknown names decode to fallback instead of failing
+	 */
+	private final boolean hasFallback;
+	/**
+	 * constant of the unknown names, may be null
+	 */
+	private final Object fallback;
+
+	/**
+	 * 
+	 * @param clazz
+	 */
+	EnumDecoder(Class clazz) {
+		this.clazz = clazz;
+		Object[] values = clazz.getEnumConstants();
+		byte[][] encoded = new byte[values.length][];
+		for (int i = 0; i < values.length; i++) {
+			encoded[i] = values[i].toString().getBytes(UTF8);
+		}
+		int size = 1;
+		while (size < values.length * 2) {
+			size <<= 1;
+		}
+		int maxSize = size << 4;
+		int found = -1;
+		while (found < 0 && size <= maxSize) {
+			for (int s = 0; s < MAXSEEDS && found < 0; s++) {
+				if (isPerfect(encoded, s, size - 1)) {
+					found = s;
+				}
+			}
+			if (found < 0) {
+				size <<= 1;
+			}
+		}
+		if (found < 0) {
+			// no perfect hash, keep a sparse table and probe it
+			size = maxSize;
+		}
+		this.perfect = found >= 0;
+		this.seed = perfect ? found : 0;
+		this.names = new byte[size][];
+		this.constants = new Object[size];
+		int mask = size - 1;
+		for (int i = 0; i < values.length; i++) {
+			int slot = hash(encoded[i], 0, encoded[i].length, seed) & mask;
+			while (names[slot] != null) {
+				slot = (slot + 1) & mask;
+			}
+			names[slot] = encoded[i];
+			constants[slot] = values[i];
+		}
+		this.hasFallback = CodegenOptions.hasUnknownEnumValue(clazz);
+		this.fallback = CodegenOptions.getUnknownEnumValue(clazz);
+	}
+
+	/**
+	 * 
+	 * @param encoded
+	 * @param seed
+	 * @param mask
+	 * @return whether no two names share a slot
+	 */
+	private static boolean isPerfect(byte[][] encoded, int seed, int mask) {
+		boolean[] used = new boolean[mask + 1];
+		for (byte[] name : encoded) {
+			int slot = hash(name, 0, name.length, seed) & mask;
+			if (used[slot]) {
+				return false;
+			}
+			used[slot] = true;
+		}
+		return true;
+	}
+
+	/**
+	 * FNV-1a, salted with seed
+	 * 
+	 * @param data
+	 * @param head
+	 * @param tail
+	 * @param seed
+	 * @return
+	 */
+	private static int hash(byte[] data, int head, int tail, int seed) {
+		int h = 0x811c9dc5 ^ (seed * 0x9e3779b9);
+		for (int i = head; i < tail; i++) {
+			h = (h ^ (data[i] & 0xff)) * 0x01000193;
+		}
+		return h ^ (h >>> 15);
+	}
+
+	/**
+	 * 
+	 * @param name
+	 * @param data
+	 * @param head
+	 * @param len
+	 * @return
+	 */
+	private static boolean matches(byte[] name, byte[] data, int head, int len) {
+		if (name.length != len) {
+			return false;
+		}
+		for (int i = 0; i < len; i++) {
+			if (name[i] != data[head + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public Object decode(JsonIterator iter) throws IOException {
+		if (iter.readNull()) {
+			return null;
+		}
+		Slice slice = CodegenAccess.readSlice(iter);
+		byte[] data = slice.data();
+		int head = slice.head();
+		int len = slice.len();
+		int mask = names.length - 1;
+		int slot = hash(data, head, head + len, seed) & mask;
+		byte[] name = names[slot];
+		while (name != null) {
+			if (matches(name, data, head, len)) {
+				return constants[slot];
+			}
+			if (perfect) {
+				break;
+			}
+			slot = (slot + 1) & mask;
+			name = names[slot];
+		}
+		if (hasFallback) {
+			return fallback;
+		}
+		throw iter.reportError("decode enum",
+				new String(data, head, len, UTF8) + " is not valid enum for " + clazz.getName());
+	}
+}
@@ -0,0 +1,106 @@
+package com.jsoniter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * class GeneratedClassRegistry: records, for each generated decoder class,
+ * whether its static decode_ method can be called directly from other
+ * generated code. Lock-free and bounded: once full, new classes are simply
+ * not recorded and callers fall back to the CodegenAccess.read path.
+ * 
+ * @author MaxiBon
+ *
+ */
+class GeneratedClassRegistry {
+	/**
+	 * cacheKey -> statically callable
+	 */
+	private final ConcurrentMap<String, Boolean> classes = new ConcurrentHashMap<String, Boolean>();
+	/**
+	 * max number of recorded classes
+	 */
+	private final int capacity;
+	/**
+	 * number of recorded classes
+	 */
+	private final AtomicInteger size = new AtomicInteger();
+	/**
+	 * lookups answered with true
+	 */
+	private final AtomicLong hits = new AtomicLong();
+	/**
+	 * lookups answered with false
+	 */
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * 
+	 * @param capacity
+	 */
+	GeneratedClassRegistry(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @param staticallyCallable
+	 * @return false if the registry is full and the class was not recorded
+	 */
+	boolean register(String cacheKey, boolean staticallyCallable) {
+		Boolean value = Boolean.valueOf(staticallyCallable);
+		if (classes.replace(cacheKey, value) != null) {
+			return true;
+		}
+		if (size.incrementAndGet() > capacity) {
+			size.decrementAndGet();
+			return false;
+		}
+		if (classes.putIfAbsent(cacheKey, value) != null) {
+			size.decrementAndGet();
+			classes.put(cacheKey, value);
+		}
+		return true;
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 * @return
+	 */
+	boolean canStaticAccess(String cacheKey) {
+		if (Boolean.TRUE.equals(classes.get(cacheKey))) {
+			hits.incrementAndGet();
+			return true;
+		}
+		misses.incrementAndGet();
+		return false;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	int size() {
+		return size.get();
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	long hits() {
+		return hits.get();
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	long misses() {
+		return misses.get();
+	}
+}
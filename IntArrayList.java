@@ -0,0 +1,161 @@
+package com.jsoniter;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import com.jsoniter.spi.JsonException;
+
+/**
+ * class IntArrayList: List&lt;Integer&gt; backed by a int[], one int per element
+ * instead of one Integer object. Null elements are not permitted, they
+ * are reported as a JsonException naming the index, e.g. a null decoded into
+ * the list.
+ * 
+ * @author MaxiBon
+ *
+ */
+public class IntArrayList extends AbstractList<Integer> implements RandomAccess, Serializable {
+	/**
+	 * serialVersionUID
+	 */
+	private static final long serialVersionUID = 1L;
+	/**
+	 * elements, only the first size are used
+	 */
+	private int[] elements;
+	/**
+	 * number of elements
+	 */
+	private int size;
+
+	/**
+	 * IntArrayList
+	 */
+	public IntArrayList() {
+		this(10);
+	}
+
+	/**
+	 * 
+	 * @param capacity
+	 */
+	public IntArrayList(int capacity) {
+		elements = new int[capacity];
+	}
+
+	/**
+	 * 
+	 * @param index
+	 * @return
+	 */
+	public int getInt(int index) {
+		checkIndex(index);
+		return elements[index];
+	}
+
+	/**
+	 * 
+	 * @param element
+	 */
+	public void addInt(int element) {
+		ensureCapacity(size + 1);
+		elements[size++] = element;
+		modCount++;
+	}
+
+	/**
+	 * 
+	 * @return a copy of the elements
+	 */
+	public int[] toIntArray() {
+		return Arrays.copyOf(elements, size);
+	}
+
+	@Override
+	public Integer get(int index) {
+		return Integer.valueOf(getInt(index));
+	}
+
+	@Override
+	public Integer set(int index, Integer element) {
+		checkIndex(index);
+		int previous = elements[index];
+		elements[index] = unbox(element, index);
+		return Integer.valueOf(previous);
+	}
+
+	@Override
+	public boolean add(Integer element) {
+		addInt(unbox(element, size));
+		return true;
+	}
+
+	@Override
+	public void add(int index, Integer element) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+		}
+		int value = unbox(element, index);
+		ensureCapacity(size + 1);
+		System.arraycopy(elements, index, elements, index + 1, size - index);
+		elements[index] = value;
+		size++;
+		modCount++;
+	}
+
+	@Override
+	public Integer remove(int index) {
+		checkIndex(index);
+		int previous = elements[index];
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		size--;
+		modCount++;
+		return Integer.valueOf(previous);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * 
+	 * @param capacity
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > elements.length) {
+			elements = Arrays.copyOf(elements, Math.max(capacity, elements.length + (elements.length >> 1) + 1));
+		}
+	}
+
+	/**
+	 * 
+	 * @param index
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+		}
+	}
+
+	/**
+	 * 
+	 * @param element
+	 * @param index
+	 * @return
+	 */
+	private static int unbox(Integer element, int index) {
+		if (element == null) {
+			throw new JsonException("IntArrayList does not permit null elements, got null at index " + index);
+		}
+		return element.intValue();
+	}
+}
@@ -0,0 +1,292 @@
+package com.jsoniter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.TypeLiteral;
+
+/**
+ * class JsonIteratorPool: striped pools of reusable JsonIterators: the one
+ * JsonIterator.deserialize borrows from, and leases for byte[] input and for
+ * InputStream input, whose iterators keep their read buffer. Slots are taken
+ * and returned with atomic swaps, there is no lock and no ThreadLocal, so any
+ * number of threads, virtual ones included, share a fixed number of
+ * iterators. When every probed slot is empty a new iterator is created, when
+ * every probed slot is full the returned one is dropped.
+ * 
+ * InputStream leases need jsoniter's streaming support, which replaces
+ * com.jsoniter.IterImpl for the whole process and only works before anything
+ * is decoded: call JsonIterator.enableStreamingSupport() at startup.
+ * 
+ * @author MaxiBon
+ *
+ */
+public class JsonIteratorPool {
+	/**
+	 * number of slots per pool, a power of two
+	 */
+	static final int SLOTS = slots();
+	/**
+	 * slots probed from the one of the thread
+	 */
+	private static final int PROBES = 4;
+	/**
+	 * read buffer size of the stream iterators
+	 */
+	private static final int BUFFERSIZE = StreamingDecoder.BUFFERSIZE;
+	/**
+	 * empty input, so idle iterators keep no reference to the last one
+	 */
+	private static final byte[] EMPTY = new byte[0];
+	/**
+	 * leases of byte[] iterators
+	 */
+	private static final AtomicReferenceArray<Lease> BYTES = new AtomicReferenceArray<Lease>(SLOTS);
+	/**
+	 * leases of InputStream iterators
+	 */
+	private static final AtomicReferenceArray<Lease> STREAMS = new AtomicReferenceArray<Lease>(SLOTS);
+	/**
+	 * idle iterators of borrowJsonIterator, the pool JsonIterator.deserialize
+	 * goes through
+	 */
+	private static final AtomicReferenceArray<JsonIterator> ITERATORS = new AtomicReferenceArray<JsonIterator>(
+			SLOTS);
+
+	/**
+	 * 
+	 * @return four slots per processor, rounded to a power of two
+	 */
+	private static int slots() {
+		int slots = 1;
+		while (slots < Runtime.getRuntime().availableProcessors() * 4) {
+			slots <<= 1;
+		}
+		return slots;
+	}
+
+	/**
+	 * 
+	 * @return the first slot probed by the current thread
+	 */
+	private static int firstSlot() {
+		long id = Thread.currentThread().getId();
+		return (int) ((id * 0x9e3779b97f4a7c15L) >>> 40) & (SLOTS - 1);
+	}
+
+	/**
+	 * 
+	 * @param slots
+	 * @return a pooled lease, null when the probed slots are empty
+	 */
+	private static Lease take(AtomicReferenceArray<Lease> slots) {
+		int first = firstSlot();
+		for (int i = 0; i < PROBES; i++) {
+			Lease lease = slots.getAndSet((first + i) & (SLOTS - 1), null);
+			if (lease != null) {
+				return lease;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 
+	 * @return an iterator to reset to the input, to be given back with
+	 *         returnJsonIterator
+	 */
+	public static JsonIterator borrowJsonIterator() {
+		int first = firstSlot();
+		for (int i = 0; i < PROBES; i++) {
+			JsonIterator iter = ITERATORS.getAndSet((first + i) & (SLOTS - 1), null);
+			if (iter != null) {
+				return iter;
+			}
+		}
+		return JsonIterator.parse(EMPTY);
+	}
+
+	/**
+	 * 
+	 * @param iter
+	 *            borrowed with borrowJsonIterator, not used afterwards
+	 */
+	public static void returnJsonIterator(JsonIterator iter) {
+		iter.configCache = null;
+		iter.existingObject = null;
+		iter.reset(EMPTY);
+		int first = firstSlot();
+		for (int i = 0; i < PROBES; i++) {
+			if (ITERATORS.compareAndSet((first + i) & (SLOTS - 1), null, iter)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @param input
+	 * @return a lease whose iterator reads input, to be closed after use
+	 */
+	public static Lease borrow(byte[] input) {
+		Lease lease = take(BYTES);
+		if (lease == null) {
+			lease = new Lease(JsonIterator.parse(EMPTY), BYTES);
+		}
+		lease.iter.reset(input);
+		lease.leased = true;
+		return lease;
+	}
+
+	/**
+	 * 
+	 * @param input
+	 * @param head
+	 * @param tail
+	 * @return a lease whose iterator reads input from head to tail, to be
+	 *         closed after use
+	 */
+	public static Lease borrow(byte[] input, int head, int tail) {
+		Lease lease = borrow(input);
+		lease.iter.reset(input, head, tail);
+		return lease;
+	}
+
+	/**
+	 * 
+	 * @param in
+	 * @return a lease whose iterator streams in, to be closed after use. The
+	 *         stream itself is not closed.
+	 * @throws JsonException
+	 *             when streaming support was not enabled at startup and can
+	 *             not be any more
+	 */
+	public static Lease borrow(InputStream in) {
+		Lease lease = take(STREAMS);
+		if (lease == null) {
+			lease = new Lease(StreamingDecoder.parse(in, BUFFERSIZE), STREAMS);
+		} else {
+			lease.iter.reset(in);
+		}
+		lease.leased = true;
+		return lease;
+	}
+
+	/**
+	 * 
+	 * @param input
+	 * @param typeLiteral
+	 * @return
+	 * @throws IOException
+	 */
+	public static <T> T read(byte[] input, TypeLiteral<T> typeLiteral) throws IOException {
+		Lease lease = borrow(input);
+		try {
+			return lease.read(typeLiteral);
+		} finally {
+			lease.close();
+		}
+	}
+
+	/**
+	 * 
+	 * @param input
+	 * @param clazz
+	 * @return
+	 * @throws IOException
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T read(byte[] input, Class<T> clazz) throws IOException {
+		return read(input, (TypeLiteral<T>) TypeLiteral.create(clazz));
+	}
+
+	/**
+	 * 
+	 * @param in
+	 * @param typeLiteral
+	 * @return
+	 * @throws IOException
+	 */
+	public static <T> T read(InputStream in, TypeLiteral<T> typeLiteral) throws IOException {
+		Lease lease = borrow(in);
+		try {
+			return lease.read(typeLiteral);
+		} finally {
+			lease.close();
+		}
+	}
+
+	/**
+	 * class Lease: a pooled iterator, returned to its pool by close. The
+	 * iterator must not be used after close.
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	public static final class Lease implements Closeable {
+		/**
+		 * iterator
+		 */
+		final JsonIterator iter;
+		/**
+		 * pool the lease goes back to
+		 */
+		private final AtomicReferenceArray<Lease> slots;
+		/**
+		 * false once closed, so a second close is ignored
+		 */
+		boolean leased;
+
+		/**
+		 * 
+		 * @param iter
+		 * @param slots
+		 */
+		Lease(JsonIterator iter, AtomicReferenceArray<Lease> slots) {
+			this.iter = iter;
+			this.slots = slots;
+		}
+
+		/**
+		 * 
+		 * @return
+		 */
+		public JsonIterator iterator() {
+			return iter;
+		}
+
+		/**
+		 * 
+		 * @param typeLiteral
+		 * @return the next value of the input
+		 * @throws IOException
+		 */
+		public <T> T read(TypeLiteral<T> typeLiteral) throws IOException {
+			return (T) Codegen.getDecoder(typeLiteral.getDecoderCacheKey(), typeLiteral.getType()).decode(iter);
+		}
+
+		@Override
+		public void close() {
+			if (!leased) {
+				return;
+			}
+			leased = false;
+			iter.configCache = null;
+			iter.existingObject = null;
+			if (slots == STREAMS) {
+				iter.reset((InputStream) null);
+			} else {
+				iter.reset(EMPTY);
+			}
+			int first = firstSlot();
+			for (int i = 0; i < PROBES; i++) {
+				if (slots.compareAndSet((first + i) & (SLOTS - 1), null, this)) {
+					return;
+				}
+			}
+		}
+	}
+}
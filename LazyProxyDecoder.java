@@ -0,0 +1,252 @@
+package com.jsoniter;
+
+import java.beans.Introspector;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.Decoder;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.TypeLiteral;
+
+/**
+ * class LazyProxyDecoder: decodes an interface into a proxy over the lazy
+ * {@link Any} of the object. The object is only skipped over while decoding, a
+ * field is decoded the first time its getter is called, then kept. The proxy
+ * reads the input buffer, which must not be reused while it is in use. Default
+ * methods run their own body; any other method must be a getter, interfaces
+ * with other methods are rejected when the decoder is created.
+ * 
+ * @author MaxiBon
+ *
+ */
+class LazyProxyDecoder implements Decoder {
+	/**
+	 * values of the primitive getters of missing or null fields
+	 */
+	private static final Map<Class, Object> DEFAULTS = defaults();
+	/**
+	 * interface
+	 */
+	private final Class clazz;
+	/**
+	 * field name, by getter
+	 */
+	private final Map<Method, String> fieldNames;
+	/**
+	 * body of the default methods, by method
+	 */
+	private final Map<Method, MethodHandle> defaultMethods;
+
+	/**
+	 * 
+	 * @param clazz
+	 *            an interface
+	 */
+	LazyProxyDecoder(Class clazz) {
+		this.clazz = clazz;
+		Map<Method, String> names = new HashMap<Method, String>();
+		Map<Method, MethodHandle> bodies = new HashMap<Method, MethodHandle>();
+		for (Method method : clazz.getMethods()) {
+			int modifiers = method.getModifiers();
+			if (Modifier.isStatic(modifiers) || method.getDeclaringClass() == Object.class) {
+				continue;
+			}
+			if (!Modifier.isAbstract(modifiers)) {
+				bodies.put(method, defaultMethod(method));
+				continue;
+			}
+			String fieldName = fieldName(method);
+			if (fieldName == null) {
+				throw new JsonException(
+						"lazy decoding of " + clazz.getName() + " only supports getters and default methods, not " + method);
+			}
+			names.put(method, fieldName);
+		}
+		this.fieldNames = Collections.unmodifiableMap(names);
+		this.defaultMethods = Collections.unmodifiableMap(bodies);
+	}
+
+	/**
+	 * the handle calls the body of the default method, not the proxy again.
+	 * Java 9 and later grant it through privateLookupIn, Java 8 only through
+	 * the private Lookup constructor.
+	 * 
+	 * @param method
+	 *            a default method
+	 * @return
+	 */
+	private static MethodHandle defaultMethod(Method method) {
+		Class declaringClass = method.getDeclaringClass();
+		try {
+			MethodHandles.Lookup lookup;
+			try {
+				Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class,
+						MethodHandles.Lookup.class);
+				lookup = (MethodHandles.Lookup) privateLookupIn.invoke(null, declaringClass, MethodHandles.lookup());
+			} catch (NoSuchMethodException e) {
+				Constructor<MethodHandles.Lookup> constructor = MethodHandles.Lookup.class
+						.getDeclaredConstructor(Class.class, int.class);
+				constructor.setAccessible(true);
+				lookup = constructor.newInstance(declaringClass, Integer.valueOf(MethodHandles.Lookup.PRIVATE));
+			}
+			return lookup.unreflectSpecial(method, declaringClass);
+		} catch (Exception e) {
+			throw new JsonException("lazy decoding can not call the default method " + method, e);
+		}
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	private static Map<Class, Object> defaults() {
+		Map<Class, Object> defaults = new IdentityHashMap<Class, Object>();
+		defaults.put(boolean.class, Boolean.FALSE);
+		defaults.put(byte.class, Byte.valueOf((byte) 0));
+		defaults.put(short.class, Short.valueOf((short) 0));
+		defaults.put(char.class, Character.valueOf((char) 0));
+		defaults.put(int.class, Integer.valueOf(0));
+		defaults.put(long.class, Long.valueOf(0));
+		defaults.put(float.class, Float.valueOf(0));
+		defaults.put(double.class, Double.valueOf(0));
+		return Collections.unmodifiableMap(defaults);
+	}
+
+	/**
+	 * 
+	 * @param method
+	 * @return the field read by the getter, null when it is not a getter
+	 */
+	private static String fieldName(Method method) {
+		if (method.getParameterTypes().length != 0 || method.getReturnType() == void.class) {
+			return null;
+		}
+		String name = method.getName();
+		if (name.startsWith("get") && name.length() > 3) {
+			return Introspector.decapitalize(name.substring(3));
+		}
+		if (name.startsWith("is") && name.length() > 2
+				&& (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class)) {
+			return Introspector.decapitalize(name.substring(2));
+		}
+		return name;
+	}
+
+	@Override
+	public Object decode(JsonIterator iter) throws IOException {
+		if (iter.readNull()) {
+			return null;
+		}
+		Any any = iter.readAny();
+		if (any.valueType() != ValueType.OBJECT) {
+			throw iter.reportError("decode lazy " + clazz.getName(), "expect object, got " + any.valueType());
+		}
+		return Proxy.newProxyInstance(clazz.getClassLoader(), new Class[] { clazz }, new Handler(any, fieldNames, defaultMethods));
+	}
+
+	/**
+	 * class Handler: decodes and keeps the fields of one object
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	private static class Handler implements InvocationHandler {
+		/**
+		 * the object, not decoded
+		 */
+		private final Any any;
+		/**
+		 * field name, by getter
+		 */
+		private final Map<Method, String> fieldNames;
+		/**
+		 * body of the default methods, by method
+		 */
+		private final Map<Method, MethodHandle> defaultMethods;
+		/**
+		 * decoded values, by getter
+		 */
+		private final Map<Method, Object> values = new HashMap<Method, Object>();
+
+		/**
+		 * 
+		 * @param any
+		 * @param fieldNames
+		 * @param defaultMethods
+		 */
+		Handler(Any any, Map<Method, String> fieldNames, Map<Method, MethodHandle> defaultMethods) {
+			this.any = any;
+			this.fieldNames = fieldNames;
+			this.defaultMethods = defaultMethods;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getDeclaringClass() == Object.class) {
+				return invokeObjectMethod(proxy, method, args);
+			}
+			MethodHandle body = defaultMethods.get(method);
+			if (body != null) {
+				// not under the lock, the body calls back into the getters
+				return body.bindTo(proxy).invokeWithArguments(args == null ? new Object[0] : args);
+			}
+			return getter(method);
+		}
+
+		/**
+		 * 
+		 * @param method
+		 * @return
+		 */
+		private synchronized Object getter(Method method) {
+			if (values.containsKey(method)) {
+				return values.get(method);
+			}
+			String fieldName = fieldNames.get(method);
+			if (fieldName == null) {
+				throw new UnsupportedOperationException(method.toString());
+			}
+			Any field = any.get(fieldName);
+			Object value = null;
+			if (field.valueType() != ValueType.INVALID && field.valueType() != ValueType.NULL) {
+				Type type = method.getGenericReturnType();
+				value = field.as(TypeLiteral.create(type));
+			}
+			if (value == null) {
+				value = DEFAULTS.get(method.getReturnType());
+			}
+			values.put(method, value);
+			return value;
+		}
+
+		/**
+		 * 
+		 * @param proxy
+		 * @param method
+		 * @param args
+		 * @return
+		 */
+		private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+			String name = method.getName();
+			if ("equals".equals(name)) {
+				return Boolean.valueOf(proxy == args[0]);
+			}
+			if ("hashCode".equals(name)) {
+				return Integer.valueOf(System.identityHashCode(proxy));
+			}
+			return any.toString();
+		}
+	}
+}
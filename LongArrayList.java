@@ -0,0 +1,161 @@
+package com.jsoniter;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import com.jsoniter.spi.JsonException;
+
+/**
+ * class LongArrayList: List&lt;Long&gt; backed by a long[], one long per element
+ * instead of one Long object. Null elements are not permitted, they
+ * are reported as a JsonException naming the index, e.g. a null decoded into
+ * the list.
+ * 
+ * @author MaxiBon
+ *
+ */
+public class LongArrayList extends AbstractList<Long> implements RandomAccess, Serializable {
+	/**
+	 * serialVersionUID
+	 */
+	private static final long serialVersionUID = 1L;
+	/**
+	 * elements, only the first size are used
+	 */
+	private long[] elements;
+	/**
+	 * number of elements
+	 */
+	private int size;
+
+	/**
+	 * LongArrayList
+	 */
+	public LongArrayList() {
+		this(10);
+	}
+
+	/**
+	 * 
+	 * @param capacity
+	 */
+	public LongArrayList(int capacity) {
+		elements = new long[capacity];
+	}
+
+	/**
+	 * 
+	 * @param index
+	 * @return
+	 */
+	public long getLong(int index) {
+		checkIndex(index);
+		return elements[index];
+	}
+
+	/**
+	 * 
+	 * @param element
+	 */
+	public void addLong(long element) {
+		ensureCapacity(size + 1);
+		elements[size++] = element;
+		modCount++;
+	}
+
+	/**
+	 * 
+	 * @return a copy of the elements
+	 */
+	public long[] toLongArray() {
+		return Arrays.copyOf(elements, size);
+	}
+
+	@Override
+	public Long get(int index) {
+		return Long.valueOf(getLong(index));
+	}
+
+	@Override
+	public Long set(int index, Long element) {
+		checkIndex(index);
+		long previous = elements[index];
+		elements[index] = unbox(element, index);
+		return Long.valueOf(previous);
+	}
+
+	@Override
+	public boolean add(Long element) {
+		addLong(unbox(element, size));
+		return true;
+	}
+
+	@Override
+	public void add(int index, Long element) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+		}
+		long value = unbox(element, index);
+		ensureCapacity(size + 1);
+		System.arraycopy(elements, index, elements, index + 1, size - index);
+		elements[index] = value;
+		size++;
+		modCount++;
+	}
+
+	@Override
+	public Long remove(int index) {
+		checkIndex(index);
+		long previous = elements[index];
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		size--;
+		modCount++;
+		return Long.valueOf(previous);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * 
+	 * @param capacity
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > elements.length) {
+			elements = Arrays.copyOf(elements, Math.max(capacity, elements.length + (elements.length >> 1) + 1));
+		}
+	}
+
+	/**
+	 * 
+	 * @param index
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+		}
+	}
+
+	/**
+	 * 
+	 * @param element
+	 * @param index
+	 * @return
+	 */
+	private static long unbox(Long element, int index) {
+		if (element == null) {
+			throw new JsonException("LongArrayList does not permit null elements, got null at index " + index);
+		}
+		return element.longValue();
+	}
+}
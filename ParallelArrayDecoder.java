@@ -0,0 +1,306 @@
+package com.jsoniter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.jsoniter.spi.Config;
+import com.jsoniter.spi.Decoder;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.JsoniterSpi;
+import com.jsoniter.spi.TypeLiteral;
+
+/**
+ * class ParallelArrayDecoder: decodes a large top level array on a fork-join
+ * pool. A structural scan finds where each element starts and ends, then the
+ * element ranges are decoded in chunks by the workers, with the decoder
+ * Codegen.getDecoder returns for the element type. The result keeps the order
+ * of the input.
+ * 
+ * @author MaxiBon
+ *
+ */
+public final class ParallelArrayDecoder {
+	/**
+	 * fewest elements decoded by one task
+	 */
+	static final int MINCHUNK = 256;
+
+	/**
+	 * default private constructor
+	 */
+	private ParallelArrayDecoder() {
+	}
+
+	/**
+	 * 
+	 * @param json
+	 *            a top level JSON array
+	 * @param elementType
+	 * @return
+	 */
+	public static <T> List<T> decode(byte[] json, TypeLiteral<T> elementType) {
+		return decode(json, 0, json.length, elementType, DefaultPool.POOL);
+	}
+
+	/**
+	 * 
+	 * @param json
+	 * @param head
+	 * @param tail
+	 * @param elementType
+	 * @param pool
+	 * @return the elements, in order
+	 */
+	public static <T> List<T> decode(byte[] json, int head, int tail, TypeLiteral<T> elementType, ForkJoinPool pool) {
+		Decoder decoder = Codegen.getDecoder(elementType.getDecoderCacheKey(), elementType.getType());
+		int[] bounds = scan(json, head, tail);
+		int count = bounds.length / 2;
+		if (count == 0) {
+			return new ArrayList<T>(0);
+		}
+		Object[] elements = new Object[count];
+		int chunk = Math.max(MINCHUNK, count / (pool.getParallelism() * 8));
+		ChunkTask task = new ChunkTask(json, bounds, elements, decoder, JsoniterSpi.getCurrentConfig(), 0, count,
+				chunk);
+		if (count <= chunk) {
+			// small enough for the calling thread, with its own config
+			task.decodeRange();
+		} else {
+			pool.invoke(task);
+		}
+		List<T> list = new ArrayList<T>(count);
+		for (Object element : elements) {
+			list.add((T) element);
+		}
+		return list;
+	}
+
+	/**
+	 * 
+	 * @param json
+	 * @param head
+	 * @param tail
+	 * @return start and end of each element, in pairs. Only whitespace may
+	 *         follow the array.
+	 */
+	static int[] scan(byte[] json, int head, int tail) {
+		int i = skipWhitespace(json, head, tail);
+		if (i == tail || json[i] != '[') {
+			throw new JsonException("expect top level array at " + i);
+		}
+		int[] bounds = new int[64];
+		int size = 0;
+		int depth = 1;
+		int start = -1;
+		boolean afterComma = false;
+		i++;
+		while (depth > 0) {
+			if (i >= tail) {
+				throw new JsonException("incomplete array");
+			}
+			byte b = json[i];
+			if (isWhitespace(b)) {
+				i++;
+				continue;
+			}
+			if (depth == 1 && (b == ',' || b == ']')) {
+				if (start >= 0) {
+					if (size == bounds.length) {
+						bounds = Arrays.copyOf(bounds, size << 1);
+					}
+					bounds[size++] = start;
+					bounds[size++] = i;
+					start = -1;
+				} else if (b == ',' || afterComma) {
+					throw new JsonException("missing element at " + i);
+				}
+				afterComma = b == ',';
+			} else if (start < 0) {
+				start = i;
+			}
+			if (b == '"') {
+				i = skipString(json, i + 1, tail);
+				continue;
+			}
+			if (b == '[' || b == '{') {
+				depth++;
+			} else if (b == ']' || b == '}') {
+				depth--;
+			}
+			i++;
+		}
+		int after = skipWhitespace(json, i, tail);
+		if (after != tail) {
+			throw new JsonException("unexpected content after the array at " + after);
+		}
+		return Arrays.copyOf(bounds, size);
+	}
+
+	/**
+	 * 
+	 * @param json
+	 * @param i
+	 *            just after the opening quote
+	 * @param tail
+	 * @return just after the closing quote
+	 */
+	private static int skipString(byte[] json, int i, int tail) {
+		while (i < tail) {
+			byte b = json[i];
+			if (b == '\\') {
+				i += 2;
+			} else if (b == '"') {
+				return i + 1;
+			} else {
+				i++;
+			}
+		}
+		throw new JsonException("incomplete string");
+	}
+
+	/**
+	 * 
+	 * @param json
+	 * @param i
+	 * @param tail
+	 * @return
+	 */
+	private static int skipWhitespace(byte[] json, int i, int tail) {
+		while (i < tail && isWhitespace(json[i])) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * 
+	 * @param b
+	 * @return
+	 */
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+
+	/**
+	 * class DefaultPool: pool of the decodes without one, created on first use
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	private static final class DefaultPool {
+		/**
+		 * daemon workers, one per processor
+		 */
+		static final ForkJoinPool POOL = new ForkJoinPool();
+	}
+
+	/**
+	 * class ChunkTask: decodes the elements from begin to end, splitting the
+	 * range while it is larger than the chunk
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	private static final class ChunkTask extends RecursiveAction {
+		/**
+		 * serialVersionUID
+		 */
+		private static final long serialVersionUID = 1L;
+		/**
+		 * input
+		 */
+		private final byte[] json;
+		/**
+		 * element bounds, in pairs
+		 */
+		private final int[] bounds;
+		/**
+		 * decoded elements
+		 */
+		private final Object[] elements;
+		/**
+		 * element decoder
+		 */
+		private final Decoder decoder;
+		/**
+		 * config of the calling thread, set on the workers
+		 */
+		private final Config config;
+		/**
+		 * first element
+		 */
+		private final int begin;
+		/**
+		 * after the last element
+		 */
+		private final int end;
+		/**
+		 * largest range decoded without splitting
+		 */
+		private final int chunk;
+
+		/**
+		 * 
+		 * @param json
+		 * @param bounds
+		 * @param elements
+		 * @param decoder
+		 * @param config
+		 * @param begin
+		 * @param end
+		 * @param chunk
+		 */
+		ChunkTask(byte[] json, int[] bounds, Object[] elements, Decoder decoder, Config config, int begin, int end,
+				int chunk) {
+			this.json = json;
+			this.bounds = bounds;
+			this.elements = elements;
+			this.decoder = decoder;
+			this.config = config;
+			this.begin = begin;
+			this.end = end;
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - begin > chunk) {
+				int middle = (begin + end) >>> 1;
+				invokeAll(new ChunkTask(json, bounds, elements, decoder, config, begin, middle, chunk),
+						new ChunkTask(json, bounds, elements, decoder, config, middle, end, chunk));
+				return;
+			}
+			JsoniterSpi.setCurrentConfig(config);
+			try {
+				decodeRange();
+			} finally {
+				JsoniterSpi.clearCurrentConfig();
+			}
+		}
+
+		/**
+		 * decodes from begin to end on the current thread
+		 */
+		void decodeRange() {
+			try {
+				JsonIterator iter = JsonIterator.parse(json, bounds[begin * 2], bounds[begin * 2 + 1]);
+				for (int i = begin; i < end; i++) {
+					int limit = bounds[i * 2 + 1];
+					iter.reset(json, bounds[i * 2], limit);
+					elements[i] = decoder.decode(iter);
+					// the decoder stops after one value, anything else in the
+					// range would be lost
+					if (skipWhitespace(json, iter.head, limit) != limit) {
+						throw iter.reportError("decode", "unexpected content after element " + i);
+					}
+				}
+			} catch (IOException e) {
+				throw new JsonException(e);
+			}
+		}
+	}
+}
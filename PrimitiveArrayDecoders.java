@@ -0,0 +1,147 @@
+package com.jsoniter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.jsoniter.spi.Decoder;
+
+/**
+ * class PrimitiveArrayDecoders: decoders of the primitive arrays. Elements
+ * are read unboxed into an array local to the decode, grown by doubling and
+ * trimmed once to the exact size, no per element boxing and no intermediate
+ * list. Each type has its own loop over a typed array, so the element read is
+ * a direct call. Nothing is retained between decodes.
+ * 
+ * @author MaxiBon
+ *
+ */
+class PrimitiveArrayDecoders {
+	/**
+	 * initial size of the array being filled
+	 */
+	private static final int INITIALSIZE = 8;
+	/**
+	 * DECODERS: primitive array type -> decoder, immutable and keyed by identity
+	 */
+	static final Map<Class, Decoder> DECODERS = decoders();
+
+	/**
+	 * default private constructor
+	 */
+	private PrimitiveArrayDecoders() {
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	private static Map<Class, Decoder> decoders() {
+		Map<Class, Decoder> decoders = new IdentityHashMap<Class, Decoder>();
+		decoders.put(int[].class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				if (iter.readNull()) {
+					return null;
+				}
+				int[] array = new int[INITIALSIZE];
+				int n = 0;
+				while (iter.readArray()) {
+					if (n == array.length) {
+						array = Arrays.copyOf(array, n << 1);
+					}
+					array[n++] = iter.readInt();
+				}
+				return n == array.length ? array : Arrays.copyOf(array, n);
+			}
+		});
+		decoders.put(long[].class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				if (iter.readNull()) {
+					return null;
+				}
+				long[] array = new long[INITIALSIZE];
+				int n = 0;
+				while (iter.readArray()) {
+					if (n == array.length) {
+						array = Arrays.copyOf(array, n << 1);
+					}
+					array[n++] = iter.readLong();
+				}
+				return n == array.length ? array : Arrays.copyOf(array, n);
+			}
+		});
+		decoders.put(double[].class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				if (iter.readNull()) {
+					return null;
+				}
+				double[] array = new double[INITIALSIZE];
+				int n = 0;
+				while (iter.readArray()) {
+					if (n == array.length) {
+						array = Arrays.copyOf(array, n << 1);
+					}
+					array[n++] = iter.readDouble();
+				}
+				return n == array.length ? array : Arrays.copyOf(array, n);
+			}
+		});
+		decoders.put(float[].class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				if (iter.readNull()) {
+					return null;
+				}
+				float[] array = new float[INITIALSIZE];
+				int n = 0;
+				while (iter.readArray()) {
+					if (n == array.length) {
+						array = Arrays.copyOf(array, n << 1);
+					}
+					array[n++] = iter.readFloat();
+				}
+				return n == array.length ? array : Arrays.copyOf(array, n);
+			}
+		});
+		decoders.put(short[].class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				if (iter.readNull()) {
+					return null;
+				}
+				short[] array = new short[INITIALSIZE];
+				int n = 0;
+				while (iter.readArray()) {
+					if (n == array.length) {
+						array = Arrays.copyOf(array, n << 1);
+					}
+					array[n++] = iter.readShort();
+				}
+				return n == array.length ? array : Arrays.copyOf(array, n);
+			}
+		});
+		decoders.put(boolean[].class, new Decoder() {
+			@Override
+			public Object decode(JsonIterator iter) throws IOException {
+				if (iter.readNull()) {
+					return null;
+				}
+				boolean[] array = new boolean[INITIALSIZE];
+				int n = 0;
+				while (iter.readArray()) {
+					if (n == array.length) {
+						array = Arrays.copyOf(array, n << 1);
+					}
+					array[n++] = iter.readBoolean();
+				}
+				return n == array.length ? array : Arrays.copyOf(array, n);
+			}
+		});
+		return Collections.unmodifiableMap(decoders);
+	}
+}
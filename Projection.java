@@ -0,0 +1,131 @@
+package com.jsoniter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import com.jsoniter.spi.Decoder;
+import com.jsoniter.spi.TypeLiteral;
+
+/**
+ * class Projection: the bindings a call site reads. The decoders of a
+ * projection are generated and cached separately from the full ones, and skip
+ * the values of every other field without decoding them. Only the fields and
+ * setters of the top level object are projected, constructor and wrapper
+ * parameters are always decoded. A decoder registered for the type through
+ * JsoniterSpi is used as is, and so is the full decoder in REFLECTION_MODE and
+ * STATIC_MODE, where no projected decoder can be generated.
+ * 
+ * @author MaxiBon
+ *
+ */
+public final class Projection {
+	/**
+	 * binding names
+	 */
+	private final SortedSet<String> names;
+	/**
+	 * suffix of the decoder cache keys
+	 */
+	private final String suffix;
+
+	/**
+	 * 
+	 * @param names
+	 */
+	private Projection(SortedSet<String> names) {
+		this.names = Collections.unmodifiableSortedSet(names);
+		// length prefixed, so no two sets of names share an encoding
+		StringBuilder encoded = new StringBuilder();
+		for (String name : names) {
+			encoded.append(name.length()).append(':').append(name);
+		}
+		this.suffix = "_projection_" + StaticCodegenManifest.hash(encoded.toString()).substring(0, 16);
+	}
+
+	/**
+	 * 
+	 * @param names
+	 *            binding names, as in Binding.name
+	 * @return
+	 */
+	public static Projection of(String... names) {
+		return new Projection(new TreeSet<String>(Arrays.asList(names)));
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public SortedSet<String> names() {
+		return names;
+	}
+
+	/**
+	 * 
+	 * @param bindingName
+	 * @return
+	 */
+	public boolean includes(String bindingName) {
+		return names.contains(bindingName);
+	}
+
+	/**
+	 * 
+	 * @param cacheKey
+	 *            of the full decoder
+	 * @return the cacheKey of the projected decoder
+	 */
+	String cacheKey(String cacheKey) {
+		return cacheKey + suffix;
+	}
+
+	/**
+	 * 
+	 * @param typeLiteral
+	 * @return the projected decoder of the type
+	 */
+	public Decoder decoder(TypeLiteral typeLiteral) {
+		return Codegen.getDecoder(typeLiteral.getDecoderCacheKey(), typeLiteral.getType(), this);
+	}
+
+	/**
+	 * 
+	 * @param iter
+	 * @param typeLiteral
+	 * @return
+	 * @throws IOException
+	 */
+	public <T> T read(JsonIterator iter, TypeLiteral<T> typeLiteral) throws IOException {
+		return (T) decoder(typeLiteral).decode(iter);
+	}
+
+	/**
+	 * 
+	 * @param iter
+	 * @param clazz
+	 * @return
+	 * @throws IOException
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T read(JsonIterator iter, Class<T> clazz) throws IOException {
+		return read(iter, (TypeLiteral<T>) TypeLiteral.create(clazz));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof Projection && ((Projection) obj).names.equals(names);
+	}
+
+	@Override
+	public int hashCode() {
+		return names.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "Projection" + names;
+	}
+}
@@ -0,0 +1,146 @@
+package com.jsoniter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.jsoniter.spi.Decoder;
+import com.jsoniter.spi.TypeLiteral;
+
+/**
+ * class Recycler: bounded lock-free pool of decoded instances of one type.
+ * read decodes into a recycled instance when there is one, through the
+ * existing object support of the generated decoders. Instances are only
+ * reused when the result is the one of a new instance: objects decoded with
+ * the trie dispatch (see
+ * {@link CodegenOptions#setFieldDispatch(Class, CodegenOptions.FieldDispatch)}),
+ * which reset the fields absent from the input and decode nested values into
+ * the current ones under the same condition, and presized collections and
+ * maps, which are cleared. The hash and strict dispatches and decoders loaded
+ * from static codegen leave absent fields with their previous value; reusing
+ * through them has to be asked for with keepAbsentFields.
+ * 
+ * @author MaxiBon
+ *
+ * @param <T>
+ */
+public final class Recycler<T> {
+	/**
+	 * slots probed from the one of the thread
+	 */
+	private static final int PROBES = 8;
+	/**
+	 * decoder of the type
+	 */
+	private final Decoder decoder;
+	/**
+	 * recycled instances
+	 */
+	private final AtomicReferenceArray<T> slots;
+	/**
+	 * whether read decodes into recycled instances
+	 */
+	private final boolean reuse;
+
+	/**
+	 * 
+	 * @param typeLiteral
+	 * @param capacity
+	 *            most instances kept for reuse
+	 */
+	public Recycler(TypeLiteral<T> typeLiteral, int capacity) {
+		this(typeLiteral, capacity, false);
+	}
+
+	/**
+	 * 
+	 * @param typeLiteral
+	 * @param capacity
+	 *            most instances kept for reuse
+	 * @param keepAbsentFields
+	 *            reuse instances even when fields absent from the input keep
+	 *            the value of the previous message
+	 */
+	public Recycler(TypeLiteral<T> typeLiteral, int capacity, boolean keepAbsentFields) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		String cacheKey = typeLiteral.getDecoderCacheKey();
+		this.decoder = Codegen.getDecoder(cacheKey, typeLiteral.getType());
+		this.slots = new AtomicReferenceArray<T>(capacity);
+		this.reuse = keepAbsentFields || Codegen.resetsAbsentFields(cacheKey);
+	}
+
+	/**
+	 * 
+	 * @return whether read decodes into recycled instances, otherwise recycle
+	 *         drops them
+	 */
+	public boolean isReusing() {
+		return reuse;
+	}
+
+	/**
+	 * 
+	 * @return the slot the current thread starts from
+	 */
+	private int firstSlot() {
+		long id = Thread.currentThread().getId();
+		return (int) (((id * 0x9e3779b97f4a7c15L) >>> 33) % slots.length());
+	}
+
+	/**
+	 * 
+	 * @param iter
+	 * @return the next value of the input, decoded into a recycled instance
+	 *         when there is one
+	 * @throws IOException
+	 */
+	public T read(JsonIterator iter) throws IOException {
+		T instance = null;
+		int first = firstSlot();
+		for (int i = 0; i < Math.min(PROBES, slots.length()) && instance == null; i++) {
+			instance = slots.getAndSet((first + i) % slots.length(), null);
+		}
+		if (instance != null) {
+			CodegenAccess.setExistingObject(iter, instance);
+		}
+		try {
+			return (T) decoder.decode(iter);
+		} finally {
+			CodegenAccess.resetExistingObject(iter);
+		}
+	}
+
+	/**
+	 * 
+	 * @param input
+	 * @return the value of the input, decoded into a recycled instance when
+	 *         there is one
+	 * @throws IOException
+	 */
+	public T read(byte[] input) throws IOException {
+		JsonIteratorPool.Lease lease = JsonIteratorPool.borrow(input);
+		try {
+			return read(lease.iterator());
+		} finally {
+			lease.close();
+		}
+	}
+
+	/**
+	 * gives an instance back for reuse, it must not be used afterwards
+	 * 
+	 * @param instance
+	 */
+	public void recycle(T instance) {
+		if (instance == null || !reuse) {
+			return;
+		}
+		int first = firstSlot();
+		for (int i = 0; i < Math.min(PROBES, slots.length()); i++) {
+			if (slots.compareAndSet((first + i) % slots.length(), null, instance)) {
+				return;
+			}
+		}
+	}
+}
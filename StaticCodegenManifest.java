@@ -0,0 +1,195 @@
+package com.jsoniter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.JsoniterSpi;
+
+/**
+ * class StaticCodegenManifest: hashes of the files written by the previous
+ * static codegen run into an output directory, used to only rewrite the
+ * files whose content changed and to delete the ones no longer generated.
+ * 
+ * @author MaxiBon
+ *
+ */
+class StaticCodegenManifest {
+	/**
+	 * name of the manifest file inside the output directory
+	 */
+	static final String FILENAME = "jsoniter-codegen.manifest";
+	/**
+	 * hex digits
+	 */
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	/**
+	 * output directory
+	 */
+	private final File outputDir;
+	/**
+	 * cacheKey -> hash, from the previous run
+	 */
+	private final Map<String, String> previous;
+	/**
+	 * cacheKey -> hash, from this run
+	 */
+	private final ConcurrentMap<String, String> current = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * 
+	 * @param outputDir
+	 * @param previous
+	 */
+	private StaticCodegenManifest(File outputDir, Map<String, String> previous) {
+		this.outputDir = outputDir;
+		this.previous = previous;
+	}
+
+	/**
+	 * 
+	 * @param outputDir
+	 * @return the manifest of the previous run, empty if there is none
+	 */
+	static StaticCodegenManifest load(String outputDir) {
+		File dir = new File(outputDir);
+		Map<String, String> previous = new HashMap<String, String>();
+		File file = new File(dir, FILENAME);
+		if (!file.isFile()) {
+			return new StaticCodegenManifest(dir, previous);
+		}
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+			try {
+				String line = reader.readLine();
+				while (line != null) {
+					int space = line.indexOf(' ');
+					if (space > 0) {
+						previous.put(line.substring(0, space), line.substring(space + 1));
+					}
+					line = reader.readLine();
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			// unreadable manifest, everything is written again
+			previous.clear();
+		}
+		return new StaticCodegenManifest(dir, previous);
+	}
+
+	/**
+	 * records the content generated for cacheKey in this run
+	 * 
+	 * @param cacheKey
+	 * @param content
+	 * @return true if the content differs from the previous run
+	 */
+	boolean update(String cacheKey, String content) {
+		String hash = hash(content);
+		current.put(cacheKey, hash);
+		return !hash.equals(previous.get(cacheKey));
+	}
+
+	/**
+	 * records cacheKey as requested in this run, so its file is kept even when
+	 * its decoder already existed and was not generated again
+	 * 
+	 * @param cacheKey
+	 */
+	void keep(String cacheKey) {
+		String hash = previous.get(cacheKey);
+		if (hash != null) {
+			current.putIfAbsent(cacheKey, hash);
+		}
+	}
+
+	/**
+	 * deletes the files of the previous run that were neither requested nor
+	 * generated again, along with the directories they leave empty, and saves
+	 * the manifest of this run. Decoders registered before the run are not
+	 * generated again, their files are kept.
+	 * 
+	 * @throws IOException
+	 */
+	void finish() throws IOException {
+		for (Map.Entry<String, String> entry : previous.entrySet()) {
+			String cacheKey = entry.getKey();
+			if (current.containsKey(cacheKey)) {
+				continue;
+			}
+			if (JsoniterSpi.getDecoder(cacheKey) != null) {
+				current.put(cacheKey, entry.getValue());
+				continue;
+			}
+			File file = new File(outputDir, cacheKey.replace('.', '/') + ".java");
+			if (file.delete()) {
+				deleteEmptyParents(file.getParentFile());
+			}
+		}
+		StringBuilder manifest = new StringBuilder();
+		for (Map.Entry<String, String> entry : new TreeMap<String, String>(current).entrySet()) {
+			manifest.append(entry.getKey()).append(' ').append(entry.getValue()).append('\n');
+		}
+		if (!outputDir.mkdirs() && !outputDir.isDirectory()) {
+			throw new IOException("can not create directory " + outputDir.getAbsolutePath());
+		}
+		FileOutputStream out = new FileOutputStream(new File(outputDir, FILENAME));
+		try {
+			out.write(manifest.toString().getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * 
+	 * @param dir
+	 *            deleted with its parents while empty, up to the output
+	 *            directory excluded
+	 */
+	private void deleteEmptyParents(File dir) {
+		File root = outputDir.getAbsoluteFile();
+		File parent = dir == null ? null : dir.getAbsoluteFile();
+		while (parent != null && !parent.equals(root)) {
+			String[] children = parent.list();
+			if (children == null || children.length > 0 || !parent.delete()) {
+				return;
+			}
+			parent = parent.getParentFile();
+		}
+	}
+
+	/**
+	 * 
+	 * @param content
+	 * @return
+	 */
+	static String hash(String content) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes("UTF-8"));
+			char[] hex = new char[digest.length * 2];
+			for (int i = 0; i < digest.length; i++) {
+				hex[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+				hex[i * 2 + 1] = HEX[digest[i] & 0xf];
+			}
+			return new String(hex);
+		} catch (NoSuchAlgorithmException e) {
+			throw new JsonException("SHA-256 not available", e);
+		} catch (IOException e) {
+			throw new JsonException("UTF-8 not available", e);
+		}
+	}
+}
@@ -0,0 +1,506 @@
+package com.jsoniter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.jsoniter.spi.Decoder;
+import com.jsoniter.spi.JsonException;
+import com.jsoniter.spi.TypeLiteral;
+
+/**
+ * class StreamingDecoder: decodes a top level array, or a newline delimited
+ * stream of values, one element at a time from an InputStream. Only the
+ * element being decoded is in memory, the read buffer keeps its size unless a
+ * single token, or line, is larger.
+ * 
+ * iterateArray and forEachInArray need jsoniter's streaming support, which
+ * replaces com.jsoniter.IterImpl for the whole process. That only works before
+ * IterImpl is loaded, so call JsonIterator.enableStreamingSupport() at startup,
+ * before anything is decoded; otherwise they throw a JsonException saying so.
+ * iterateLines and forEachLine parse each line from a byte[] and do not need it.
+ * 
+ * @author MaxiBon
+ *
+ */
+public final class StreamingDecoder {
+	/**
+	 * default size of the read buffer
+	 */
+	static final int BUFFERSIZE = 8192;
+	/**
+	 * byte after each line, where no value can continue, so that the parser
+	 * fails instead of reading what earlier lines left in the buffer
+	 */
+	private static final byte SENTINEL = 0;
+	/**
+	 * set once streaming support is known to be enabled
+	 */
+	private static volatile boolean streaming;
+	/**
+	 * why streaming support could not be enabled, JsonIterator does not
+	 * report it twice
+	 */
+	private static JsonException streamingFailure;
+
+	/**
+	 * default private constructor
+	 */
+	private StreamingDecoder() {
+	}
+
+	/**
+	 * interface Callback: receives the elements in order
+	 * 
+	 * @author MaxiBon
+	 *
+	 * @param <T>
+	 */
+	public interface Callback<T> {
+		/**
+		 * 
+		 * @param element
+		 * @return false to stop before the next element
+		 * @throws IOException
+		 */
+		boolean onElement(T element) throws IOException;
+	}
+
+	/**
+	 * 
+	 * @param in
+	 *            a top level JSON array, or null
+	 * @param elementType
+	 * @return the elements, the stream is closed when they are exhausted or
+	 *         when the iterator is closed
+	 * @throws JsonException
+	 *             when streaming support was not enabled at startup and can
+	 *             not be any more
+	 */
+	public static <T> ElementIterator<T> iterateArray(InputStream in, TypeLiteral<T> elementType) {
+		return iterateArray(in, elementType, BUFFERSIZE);
+	}
+
+	/**
+	 * 
+	 * @param in
+	 * @param elementType
+	 * @param bufferSize
+	 * @return
+	 */
+	public static <T> ElementIterator<T> iterateArray(InputStream in, TypeLiteral<T> elementType, int bufferSize) {
+		return new ArrayIterator<T>(in, decoder(elementType), bufferSize);
+	}
+
+	/**
+	 * 
+	 * @param in
+	 *            one JSON value per line, blank lines are ignored
+	 * @param elementType
+	 * @return the values, the stream is closed when they are exhausted or
+	 *         when the iterator is closed
+	 */
+	public static <T> ElementIterator<T> iterateLines(InputStream in, TypeLiteral<T> elementType) {
+		return iterateLines(in, elementType, BUFFERSIZE);
+	}
+
+	/**
+	 * 
+	 * @param in
+	 * @param elementType
+	 * @param bufferSize
+	 * @return
+	 */
+	public static <T> ElementIterator<T> iterateLines(InputStream in, TypeLiteral<T> elementType, int bufferSize) {
+		return new LineIterator<T>(in, decoder(elementType), bufferSize);
+	}
+
+	/**
+	 * 
+	 * @param in
+	 *            a top level JSON array, or null
+	 * @param elementType
+	 * @param callback
+	 * @return the number of elements passed to the callback
+	 * @throws IOException
+	 */
+	public static <T> long forEachInArray(InputStream in, TypeLiteral<T> elementType, Callback<? super T> callback)
+			throws IOException {
+		return forEach(iterateArray(in, elementType), callback);
+	}
+
+	/**
+	 * 
+	 * @param in
+	 *            one JSON value per line, blank lines are ignored
+	 * @param elementType
+	 * @param callback
+	 * @return the number of elements passed to the callback
+	 * @throws IOException
+	 */
+	public static <T> long forEachLine(InputStream in, TypeLiteral<T> elementType, Callback<? super T> callback)
+			throws IOException {
+		return forEach(iterateLines(in, elementType), callback);
+	}
+
+	/**
+	 * 
+	 * @param elements
+	 * @param callback
+	 * @return
+	 * @throws IOException
+	 */
+	private static <T> long forEach(ElementIterator<T> elements, Callback<? super T> callback) throws IOException {
+		long count = 0;
+		try {
+			boolean more = true;
+			while (more && elements.hasNext()) {
+				count++;
+				more = callback.onElement(elements.next());
+			}
+		} finally {
+			elements.close();
+		}
+		return count;
+	}
+
+	/**
+	 * 
+	 * @param in
+	 * @param bufferSize
+	 * @return a streaming iterator over in
+	 * @throws JsonException
+	 *             when streaming support can not be enabled any more, because
+	 *             IterImpl was loaded by an earlier decode
+	 */
+	static JsonIterator parse(InputStream in, int bufferSize) {
+		if (!streaming) {
+			enableStreaming();
+		}
+		return JsonIterator.parse(in, bufferSize);
+	}
+
+	/**
+	 * turns streaming support on, or reports why it can not be
+	 */
+	private static synchronized void enableStreaming() {
+		if (streaming) {
+			return;
+		}
+		if (streamingFailure == null) {
+			try {
+				JsonIterator.enableStreamingSupport();
+				streaming = true;
+				return;
+			} catch (JsonException e) {
+				streamingFailure = e;
+			}
+		}
+		throw new JsonException("streaming support could not be enabled, most likely because com.jsoniter.IterImpl"
+				+ " was already loaded by an earlier decode: call JsonIterator.enableStreamingSupport() at startup,"
+				+ " before anything is decoded", streamingFailure);
+	}
+
+	/**
+	 * 
+	 * @param elementType
+	 * @return
+	 */
+	private static Decoder decoder(TypeLiteral elementType) {
+		return Codegen.getDecoder(elementType.getDecoderCacheKey(), elementType.getType());
+	}
+
+	/**
+	 * class ElementIterator: pulls the elements one by one. IOExceptions
+	 * surface as JsonExceptions.
+	 * 
+	 * @author MaxiBon
+	 *
+	 * @param <T>
+	 */
+	public abstract static class ElementIterator<T> implements Iterator<T>, Closeable {
+		/**
+		 * source
+		 */
+		final InputStream in;
+		/**
+		 * element decoder
+		 */
+		final Decoder decoder;
+		/**
+		 * whether the next element has been looked for
+		 */
+		private boolean fetched;
+		/**
+		 * whether there is a next element
+		 */
+		private boolean available;
+		/**
+		 * set once exhausted or closed
+		 */
+		private boolean closed;
+
+		/**
+		 * 
+		 * @param in
+		 * @param decoder
+		 */
+		ElementIterator(InputStream in, Decoder decoder) {
+			this.in = in;
+			this.decoder = decoder;
+		}
+
+		/**
+		 * moves to the next element
+		 * 
+		 * @return whether there is one
+		 * @throws IOException
+		 */
+		abstract boolean advance() throws IOException;
+
+		/**
+		 * 
+		 * @return the element advance moved to
+		 * @throws IOException
+		 */
+		abstract Object decodeCurrent() throws IOException;
+
+		@Override
+		public boolean hasNext() {
+			if (!fetched) {
+				try {
+					available = !closed && advance();
+				} catch (IOException e) {
+					throw new JsonException(e);
+				}
+				fetched = true;
+				if (!available) {
+					closeQuietly();
+				}
+			}
+			return available;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			fetched = false;
+			try {
+				return (T) decodeCurrent();
+			} catch (IOException e) {
+				throw new JsonException(e);
+			}
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("remove");
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!closed) {
+				closed = true;
+				in.close();
+			}
+		}
+
+		/**
+		 * 
+		 */
+		private void closeQuietly() {
+			try {
+				close();
+			} catch (IOException e) {
+				// exhausted, nothing left to report the failure to
+			}
+		}
+	}
+
+	/**
+	 * class ArrayIterator: elements of a top level array, through the
+	 * streaming JsonIterator
+	 * 
+	 * @author MaxiBon
+	 *
+	 * @param <T>
+	 */
+	private static final class ArrayIterator<T> extends ElementIterator<T> {
+		/**
+		 * streaming iterator over in
+		 */
+		private final JsonIterator iter;
+		/**
+		 * whether the array has been found to be null
+		 */
+		private boolean started;
+
+		/**
+		 * 
+		 * @param in
+		 * @param decoder
+		 * @param bufferSize
+		 */
+		ArrayIterator(InputStream in, Decoder decoder, int bufferSize) {
+			super(in, decoder);
+			this.iter = StreamingDecoder.parse(in, bufferSize);
+		}
+
+		@Override
+		boolean advance() throws IOException {
+			if (!started) {
+				started = true;
+				if (iter.readNull()) {
+					return false;
+				}
+			}
+			return iter.readArray();
+		}
+
+		@Override
+		Object decodeCurrent() throws IOException {
+			return decoder.decode(iter);
+		}
+	}
+
+	/**
+	 * class LineIterator: one value per line, each line parsed from a reused
+	 * buffer and followed by the sentinel. Anything but whitespace after the
+	 * value is an error.
+	 * 
+	 * @author MaxiBon
+	 *
+	 * @param <T>
+	 */
+	private static final class LineIterator<T> extends ElementIterator<T> {
+		/**
+		 * bytes read from in
+		 */
+		private final byte[] chunk;
+		/**
+		 * unconsumed part of chunk
+		 */
+		private int chunkHead;
+		/**
+		 * end of the bytes read into chunk
+		 */
+		private int chunkTail;
+		/**
+		 * current line
+		 */
+		private byte[] line;
+		/**
+		 * length of the current line
+		 */
+		private int lineLength;
+		/**
+		 * iterator reset on each line
+		 */
+		private final JsonIterator iter;
+
+		/**
+		 * 
+		 * @param in
+		 * @param decoder
+		 * @param bufferSize
+		 */
+		LineIterator(InputStream in, Decoder decoder, int bufferSize) {
+			super(in, decoder);
+			this.chunk = new byte[bufferSize];
+			this.line = new byte[bufferSize];
+			this.iter = JsonIterator.parse(line, 0, 0);
+		}
+
+		@Override
+		boolean advance() throws IOException {
+			while (readLine()) {
+				if (!isBlank(0)) {
+					if (lineLength == line.length) {
+						line = Arrays.copyOf(line, lineLength + 1);
+					}
+					line[lineLength] = SENTINEL;
+					iter.reset(line, 0, lineLength);
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		Object decodeCurrent() throws IOException {
+			Object element = decoder.decode(iter);
+			// past the end, the parser skipped over the sentinel
+			if (iter.head > lineLength) {
+				throw iter.reportError("iterateLines", "incomplete value");
+			}
+			if (!isBlank(iter.head)) {
+				throw iter.reportError("iterateLines", "expect one value per line, got content after it");
+			}
+			return element;
+		}
+
+		/**
+		 * 
+		 * @return false at the end of the stream
+		 * @throws IOException
+		 */
+		private boolean readLine() throws IOException {
+			lineLength = 0;
+			boolean read = false;
+			for (;;) {
+				if (chunkHead == chunkTail) {
+					int n = in.read(chunk);
+					if (n < 0) {
+						return read;
+					}
+					chunkHead = 0;
+					chunkTail = n;
+				}
+				read = true;
+				int end = chunkHead;
+				while (end < chunkTail && chunk[end] != '\n') {
+					end++;
+				}
+				append(end - chunkHead);
+				if (end < chunkTail) {
+					chunkHead = end + 1;
+					return true;
+				}
+				chunkHead = chunkTail;
+			}
+		}
+
+		/**
+		 * 
+		 * @param length
+		 *            of the chunk bytes to append to the line
+		 */
+		private void append(int length) {
+			if (lineLength + length > line.length) {
+				line = Arrays.copyOf(line, Math.max(lineLength + length, line.length << 1));
+			}
+			System.arraycopy(chunk, chunkHead, line, lineLength, length);
+			lineLength += length;
+		}
+
+		/**
+		 * 
+		 * @param from
+		 * @return whether the line only holds JSON whitespace from there on
+		 */
+		private boolean isBlank(int from) {
+			for (int i = from; i < lineLength; i++) {
+				byte b = line[i];
+				if (b != ' ' && b != '\t' && b != '\r') {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
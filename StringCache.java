@@ -0,0 +1,140 @@
+package com.jsoniter;
+
+import java.nio.charset.Charset;
+
+/**
+ * class StringCache: bounded cache of short decoded strings keyed on their raw
+ * UTF-8 bytes, so repeated values such as codes and statuses decode to one
+ * canonical instance instead of a new String each time. The cache is direct
+ * mapped: a slot holds the last string hashed to it, so a lookup costs one
+ * hash over the bytes and one comparison, and it never grows.
+ * 
+ * @author MaxiBon
+ *
+ */
+public final class StringCache {
+	/**
+	 * longest cached string, in bytes
+	 */
+	static final int MAXLENGTH = 32;
+	/**
+	 * number of slots, a power of two
+	 */
+	static final int SLOTS = 4096;
+	/**
+	 * UTF-8
+	 */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	/**
+	 * slots, entries are immutable so races only cost a miss
+	 */
+	private static final Entry[] ENTRIES = new Entry[SLOTS];
+
+	/**
+	 * default private constructor
+	 */
+	private StringCache() {
+	}
+
+	/**
+	 * 
+	 * @param data
+	 * @param head
+	 * @param len
+	 * @return the string of the UTF-8 bytes, canonical when not longer than
+	 *         MAXLENGTH
+	 */
+	public static String get(byte[] data, int head, int len) {
+		if (len > MAXLENGTH) {
+			return new String(data, head, len, UTF8);
+		}
+		int hash = hash(data, head, len);
+		int slot = hash & (SLOTS - 1);
+		Entry entry = ENTRIES[slot];
+		if (entry != null && entry.hash == hash && entry.matches(data, head, len)) {
+			return entry.value;
+		}
+		String value = new String(data, head, len, UTF8);
+		byte[] bytes = new byte[len];
+		System.arraycopy(data, head, bytes, 0, len);
+		ENTRIES[slot] = new Entry(bytes, hash, value);
+		return value;
+	}
+
+	/**
+	 * empties the cache
+	 */
+	public static void clear() {
+		for (int i = 0; i < SLOTS; i++) {
+			ENTRIES[i] = null;
+		}
+	}
+
+	/**
+	 * FNV-1a
+	 * 
+	 * @param data
+	 * @param head
+	 * @param len
+	 * @return
+	 */
+	private static int hash(byte[] data, int head, int len) {
+		int h = 0x811c9dc5;
+		for (int i = head; i < head + len; i++) {
+			h = (h ^ (data[i] & 0xff)) * 0x01000193;
+		}
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * class Entry: raw bytes and their string
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	private static final class Entry {
+		/**
+		 * raw bytes
+		 */
+		final byte[] bytes;
+		/**
+		 * hash of bytes
+		 */
+		final int hash;
+		/**
+		 * string
+		 */
+		final String value;
+
+		/**
+		 * 
+		 * @param bytes
+		 * @param hash
+		 * @param value
+		 */
+		Entry(byte[] bytes, int hash, String value) {
+			this.bytes = bytes;
+			this.hash = hash;
+			this.value = value;
+		}
+
+		/**
+		 * 
+		 * @param data
+		 * @param head
+		 * @param len
+		 * @return
+		 */
+		boolean matches(byte[] data, int head, int len) {
+			if (bytes.length != len) {
+				return false;
+			}
+			for (int i = 0; i < len; i++) {
+				if (bytes[i] != data[head + i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
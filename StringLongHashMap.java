@@ -0,0 +1,271 @@
+package com.jsoniter;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.jsoniter.spi.JsonException;
+
+/**
+ * class StringLongHashMap: Map&lt;String, Long&gt; with open addressing (linear
+ * probing) over a String[] and a long[], no entry object per mapping. Null keys
+ * and null values are not permitted, they are reported as a JsonException
+ * naming the key; entry set iterators do not support remove.
+ *
+ * @author MaxiBon
+ *
+ */
+public class StringLongHashMap extends AbstractMap<String, Long> implements Serializable {
+	/**
+	 * serialVersionUID
+	 */
+	private static final long serialVersionUID = 1L;
+	/**
+	 * keys, null marks a free slot
+	 */
+	private String[] keys;
+	/**
+	 * values, parallel to keys
+	 */
+	private long[] values;
+	/**
+	 * number of mappings
+	 */
+	private int size;
+
+	/**
+	 * StringLongHashMap
+	 */
+	public StringLongHashMap() {
+		this(8);
+	}
+
+	/**
+	 *
+	 * @param capacity expected number of mappings
+	 */
+	public StringLongHashMap(int capacity) {
+		int slots = 4;
+		while (slots < (long) capacity * 2) {
+			slots <<= 1;
+		}
+		keys = new String[slots];
+		values = new long[slots];
+	}
+
+	/**
+	 *
+	 * @param key
+	 * @return
+	 */
+	private int slot(Object key) {
+		int h = key.hashCode();
+		int mask = keys.length - 1;
+		int i = (h ^ (h >>> 16)) & mask;
+		while (keys[i] != null && !keys[i].equals(key)) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	/**
+	 *
+	 * @param key
+	 * @param defaultValue
+	 * @return
+	 */
+	public long getLong(String key, long defaultValue) {
+		int i = slot(key);
+		return keys[i] == null ? defaultValue : values[i];
+	}
+
+	/**
+	 *
+	 * @param key
+	 * @param value
+	 */
+	public void putLong(String key, long value) {
+		if (key == null) {
+			throw new JsonException("StringLongHashMap does not permit null keys");
+		}
+		int i = slot(key);
+		if (keys[i] == null) {
+			keys[i] = key;
+			size++;
+			if (size * 2 > keys.length) {
+				values[i] = value;
+				resize();
+				return;
+			}
+		}
+		values[i] = value;
+	}
+
+	/**
+	 * 
+	 * @param key
+	 * @param value
+	 * @return
+	 */
+	private static long unbox(String key, Long value) {
+		if (value == null) {
+			throw new JsonException("StringLongHashMap does not permit null values, got null for key " + key);
+		}
+		return value.longValue();
+	}
+
+	/**
+	 * doubles the table
+	 */
+	private void resize() {
+		String[] oldKeys = keys;
+		long[] oldValues = values;
+		keys = new String[oldKeys.length << 1];
+		values = new long[oldKeys.length << 1];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				int j = slot(oldKeys[i]);
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+
+	@Override
+	public Long get(Object key) {
+		if (!(key instanceof String)) {
+			return null;
+		}
+		int i = slot(key);
+		return keys[i] == null ? null : Long.valueOf(values[i]);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key instanceof String && keys[slot(key)] != null;
+	}
+
+	@Override
+	public Long put(String key, Long value) {
+		long unboxed = unbox(key, value);
+		Long previous = get(key);
+		putLong(key, unboxed);
+		return previous;
+	}
+
+	@Override
+	public Long remove(Object key) {
+		if (!(key instanceof String)) {
+			return null;
+		}
+		int i = slot(key);
+		if (keys[i] == null) {
+			return null;
+		}
+		Long previous = Long.valueOf(values[i]);
+		keys[i] = null;
+		size--;
+		// backward shift, so that probing sequences stay unbroken
+		int mask = keys.length - 1;
+		int j = (i + 1) & mask;
+		while (keys[j] != null) {
+			String k = keys[j];
+			int h = k.hashCode();
+			int home = (h ^ (h >>> 16)) & mask;
+			if (((j - home) & mask) >= ((j - i) & mask)) {
+				keys[i] = k;
+				values[i] = values[j];
+				keys[j] = null;
+				i = j;
+			}
+			j = (j + 1) & mask;
+		}
+		return previous;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = null;
+		}
+		size = 0;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Long>> entrySet() {
+		return new AbstractSet<Map.Entry<String, Long>>() {
+			@Override
+			public Iterator<Map.Entry<String, Long>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * class EntryIterator
+	 *
+	 * @author MaxiBon
+	 *
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<String, Long>> {
+		/**
+		 * next occupied slot
+		 */
+		private int next = advance(0);
+
+		/**
+		 *
+		 * @param from
+		 * @return
+		 */
+		private int advance(int from) {
+			int i = from;
+			while (i < keys.length && keys[i] == null) {
+				i++;
+			}
+			return i;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < keys.length;
+		}
+
+		@Override
+		public Map.Entry<String, Long> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final int i = next;
+			next = advance(i + 1);
+			return new AbstractMap.SimpleEntry<String, Long>(keys[i], Long.valueOf(values[i])) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public Long setValue(Long value) {
+					values[i] = unbox(getKey(), value);
+					return super.setValue(value);
+				}
+			};
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("remove");
+		}
+	}
+}
@@ -0,0 +1,259 @@
+package com.jsoniter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jsoniter.spi.Decoder;
+import com.jsoniter.spi.TypeLiteral;
+
+/**
+ * class CodegenBenchmark: cold and warm Codegen.getDecoder. The cold
+ * benchmarks run a single call per fresh JVM, so they include the whole
+ * codegen of the type. Run with -prof gc for the allocation rate.
+ * 
+ * @author MaxiBon
+ *
+ */
+@State(Scope.Benchmark)
+public class CodegenBenchmark {
+	/**
+	 * pojo
+	 */
+	private static final TypeLiteral<Pojo> POJO = TypeLiteral.create(Pojo.class);
+	/**
+	 * collection
+	 */
+	private static final TypeLiteral<List<Integer>> LIST = new TypeLiteral<List<Integer>>() {
+	};
+	/**
+	 * map
+	 */
+	private static final TypeLiteral<Map<String, Long>> MAP = new TypeLiteral<Map<String, Long>>() {
+	};
+	/**
+	 * enum
+	 */
+	private static final TypeLiteral<Status> ENUM = TypeLiteral.create(Status.class);
+	/**
+	 * primitive array
+	 */
+	private static final TypeLiteral<int[]> INTS = TypeLiteral.create(int[].class);
+	/**
+	 * object array
+	 */
+	private static final TypeLiteral<String[]> STRINGS = TypeLiteral.create(String[].class);
+
+	/**
+	 * class Pojo
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	public static class Pojo {
+		/**
+		 * id
+		 */
+		public int id;
+		/**
+		 * name
+		 */
+		public String name;
+		/**
+		 * score
+		 */
+		public double score;
+		/**
+		 * tags
+		 */
+		public List<String> tags;
+		/**
+		 * status
+		 */
+		public Status status;
+	}
+
+	/**
+	 * enum Status
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	public enum Status {
+		/**
+		 * ACTIVE
+		 */
+		ACTIVE,
+		/**
+		 * INACTIVE
+		 */
+		INACTIVE,
+		/**
+		 * PENDING
+		 */
+		PENDING
+	}
+
+	/**
+	 * 
+	 * @param typeLiteral
+	 * @return
+	 */
+	static Decoder decoder(TypeLiteral typeLiteral) {
+		return Codegen.getDecoder(typeLiteral.getDecoderCacheKey(), typeLiteral.getType());
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(20)
+	public Decoder coldPojo() {
+		return decoder(POJO);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(20)
+	public Decoder coldList() {
+		return decoder(LIST);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(20)
+	public Decoder coldMap() {
+		return decoder(MAP);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(20)
+	public Decoder coldEnum() {
+		return decoder(ENUM);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(20)
+	public Decoder coldIntArray() {
+		return decoder(INTS);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(20)
+	public Decoder coldStringArray() {
+		return decoder(STRINGS);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Decoder warmPojo() {
+		return decoder(POJO);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Decoder warmList() {
+		return decoder(LIST);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Decoder warmMap() {
+		return decoder(MAP);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Decoder warmEnum() {
+		return decoder(ENUM);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Decoder warmIntArray() {
+		return decoder(INTS);
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Decoder warmStringArray() {
+		return decoder(STRINGS);
+	}
+}
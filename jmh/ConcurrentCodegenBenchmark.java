@@ -0,0 +1,104 @@
+package com.jsoniter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewConstructor;
+
+import com.jsoniter.spi.TypeLiteral;
+
+/**
+ * class ConcurrentCodegenBenchmark: first time generation of the same set
+ * of types from many threads at once, in one fresh JVM per measurement.
+ * sameOrder has every thread ask for the same type at the same time,
+ * rotatedOrder has each thread start from a different type.
+ * 
+ * @author MaxiBon
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@Threads(8)
+public class ConcurrentCodegenBenchmark {
+	/**
+	 * number of types generated by every thread
+	 */
+	private static final int COUNT = 16;
+	/**
+	 * types generated by every thread
+	 */
+	private static final TypeLiteral[] TYPES = dtos(COUNT);
+	/**
+	 * next thread index
+	 */
+	private static final AtomicInteger THREADS = new AtomicInteger();
+	/**
+	 * index of this thread
+	 */
+	private final int thread = THREADS.getAndIncrement();
+
+	/**
+	 * distinct classes of the same shape, made through the pool DynamicCodegen
+	 * compiles against
+	 * 
+	 * @param count
+	 * @return
+	 */
+	private static TypeLiteral[] dtos(int count) {
+		ClassPool pool = ClassPool.getDefault();
+		TypeLiteral[] types = new TypeLiteral[count];
+		try {
+			for (int i = 0; i < count; i++) {
+				int n = i + 1;
+				CtClass ctClass = pool.makeClass(ConcurrentCodegenBenchmark.class.getName() + "$Dto" + n);
+				ctClass.addField(CtField.make("public int a" + n + ";", ctClass));
+				ctClass.addField(CtField.make("public String b" + n + ";", ctClass));
+				ctClass.addField(CtField.make("public long[] c" + n + ";", ctClass));
+				ctClass.addConstructor(CtNewConstructor.defaultConstructor(ctClass));
+				types[i] = TypeLiteral.create(ctClass.toClass());
+			}
+		} catch (CannotCompileException e) {
+			throw new IllegalStateException(e);
+		}
+		return types;
+	}
+
+	/**
+	 * 
+	 * @param bh
+	 */
+	@Benchmark
+	public void sameOrder(Blackhole bh) {
+		for (TypeLiteral type : TYPES) {
+			bh.consume(CodegenBenchmark.decoder(type));
+		}
+	}
+
+	/**
+	 * 
+	 * @param bh
+	 */
+	@Benchmark
+	public void rotatedOrder(Blackhole bh) {
+		for (int i = 0; i < TYPES.length; i++) {
+			bh.consume(CodegenBenchmark.decoder(TYPES[(i + thread * 2) % TYPES.length]));
+		}
+	}
+}
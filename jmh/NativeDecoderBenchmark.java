@@ -0,0 +1,473 @@
+package com.jsoniter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.jsoniter.any.Any;
+import com.jsoniter.spi.Decoder;
+
+/**
+ * class NativeDecoderBenchmark: each NATIVE_DECODERS entry, through its
+ * specialized decodeX method and through the boxing decode, against the
+ * NATIVE_READS expression generated code inlines. The entries without a
+ * specialized method (boxed types, BigDecimal, BigInteger, Object and Any) go
+ * through decode only, one run per entry. Run with -prof gc to see which paths
+ * allocate.
+ * 
+ * @author MaxiBon
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+public class NativeDecoderBenchmark {
+	/**
+	 * NATIVE_DECODERS entry of int
+	 */
+	private static final Decoder INT = CodegenImplNative.NATIVE_DECODERS.get(int.class);
+	/**
+	 * input of int
+	 */
+	private static final byte[] INT_JSON = "123456".getBytes();
+	/**
+	 * NATIVE_DECODERS entry of long
+	 */
+	private static final Decoder LONG = CodegenImplNative.NATIVE_DECODERS.get(long.class);
+	/**
+	 * input of long
+	 */
+	private static final byte[] LONG_JSON = "1234567890123".getBytes();
+	/**
+	 * NATIVE_DECODERS entry of double
+	 */
+	private static final Decoder DOUBLE = CodegenImplNative.NATIVE_DECODERS.get(double.class);
+	/**
+	 * input of double
+	 */
+	private static final byte[] DOUBLE_JSON = "3.14159".getBytes();
+	/**
+	 * NATIVE_DECODERS entry of float
+	 */
+	private static final Decoder FLOAT = CodegenImplNative.NATIVE_DECODERS.get(float.class);
+	/**
+	 * input of float
+	 */
+	private static final byte[] FLOAT_JSON = "2.5".getBytes();
+	/**
+	 * NATIVE_DECODERS entry of short
+	 */
+	private static final Decoder SHORT = CodegenImplNative.NATIVE_DECODERS.get(short.class);
+	/**
+	 * input of short
+	 */
+	private static final byte[] SHORT_JSON = "1234".getBytes();
+	/**
+	 * NATIVE_DECODERS entry of boolean
+	 */
+	private static final Decoder BOOLEAN = CodegenImplNative.NATIVE_DECODERS.get(boolean.class);
+	/**
+	 * input of boolean
+	 */
+	private static final byte[] BOOLEAN_JSON = "true".getBytes();
+	/**
+	 * NATIVE_DECODERS entry of byte
+	 */
+	private static final Decoder BYTE = CodegenImplNative.NATIVE_DECODERS.get(byte.class);
+	/**
+	 * input of byte
+	 */
+	private static final byte[] BYTE_JSON = "-12".getBytes();
+	/**
+	 * NATIVE_DECODERS entry of char
+	 */
+	private static final Decoder CHAR = CodegenImplNative.NATIVE_DECODERS.get(char.class);
+	/**
+	 * input of char
+	 */
+	private static final byte[] CHAR_JSON = "65".getBytes();
+	/**
+	 * NATIVE_DECODERS entry of String
+	 */
+	private static final Decoder STRING = CodegenImplNative.NATIVE_DECODERS.get(String.class);
+	/**
+	 * input of String
+	 */
+	private static final byte[] STRING_JSON = "\"hello world\"".getBytes();
+	/**
+	 * iterator reset on every call
+	 */
+	private final JsonIterator iter = JsonIterator.parse(new byte[0]);
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public int intDecoder() throws IOException {
+		iter.reset(INT_JSON);
+		return ((Decoder.IntDecoder) INT).decodeInt(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public Object intDecoderBoxed() throws IOException {
+		iter.reset(INT_JSON);
+		return INT.decode(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public int intInline() throws IOException {
+		iter.reset(INT_JSON);
+		return iter.readInt();
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public long longDecoder() throws IOException {
+		iter.reset(LONG_JSON);
+		return ((Decoder.LongDecoder) LONG).decodeLong(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public Object longDecoderBoxed() throws IOException {
+		iter.reset(LONG_JSON);
+		return LONG.decode(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public long longInline() throws IOException {
+		iter.reset(LONG_JSON);
+		return iter.readLong();
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public double doubleDecoder() throws IOException {
+		iter.reset(DOUBLE_JSON);
+		return ((Decoder.DoubleDecoder) DOUBLE).decodeDouble(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public Object doubleDecoderBoxed() throws IOException {
+		iter.reset(DOUBLE_JSON);
+		return DOUBLE.decode(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public double doubleInline() throws IOException {
+		iter.reset(DOUBLE_JSON);
+		return iter.readDouble();
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public float floatDecoder() throws IOException {
+		iter.reset(FLOAT_JSON);
+		return ((Decoder.FloatDecoder) FLOAT).decodeFloat(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public Object floatDecoderBoxed() throws IOException {
+		iter.reset(FLOAT_JSON);
+		return FLOAT.decode(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public float floatInline() throws IOException {
+		iter.reset(FLOAT_JSON);
+		return iter.readFloat();
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public short shortDecoder() throws IOException {
+		iter.reset(SHORT_JSON);
+		return ((Decoder.ShortDecoder) SHORT).decodeShort(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public Object shortDecoderBoxed() throws IOException {
+		iter.reset(SHORT_JSON);
+		return SHORT.decode(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public short shortInline() throws IOException {
+		iter.reset(SHORT_JSON);
+		return iter.readShort();
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public boolean booleanDecoder() throws IOException {
+		iter.reset(BOOLEAN_JSON);
+		return ((Decoder.BooleanDecoder) BOOLEAN).decodeBoolean(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public Object booleanDecoderBoxed() throws IOException {
+		iter.reset(BOOLEAN_JSON);
+		return BOOLEAN.decode(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public boolean booleanInline() throws IOException {
+		iter.reset(BOOLEAN_JSON);
+		return iter.readBoolean();
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public short byteDecoder() throws IOException {
+		iter.reset(BYTE_JSON);
+		return ((Decoder.ShortDecoder) BYTE).decodeShort(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public Object byteDecoderBoxed() throws IOException {
+		iter.reset(BYTE_JSON);
+		return BYTE.decode(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public byte byteInline() throws IOException {
+		iter.reset(BYTE_JSON);
+		return CodegenNativeAccess.readByte(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public int charDecoder() throws IOException {
+		iter.reset(CHAR_JSON);
+		return ((Decoder.IntDecoder) CHAR).decodeInt(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public Object charDecoderBoxed() throws IOException {
+		iter.reset(CHAR_JSON);
+		return CHAR.decode(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public char charInline() throws IOException {
+		iter.reset(CHAR_JSON);
+		return CodegenNativeAccess.readChar(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public Object stringDecoderBoxed() throws IOException {
+		iter.reset(STRING_JSON);
+		return STRING.decode(iter);
+	}
+
+	/**
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public String stringInline() throws IOException {
+		iter.reset(STRING_JSON);
+		return iter.readString();
+	}
+
+	/**
+	 * class Boxed: the NATIVE_DECODERS entries that only have decode
+	 * 
+	 * @author MaxiBon
+	 *
+	 */
+	@State(Scope.Thread)
+	public static class Boxed {
+		/**
+		 * entry -> input
+		 */
+		private static final Map<String, Object[]> ENTRIES = new HashMap<String, Object[]>();
+
+		static {
+			ENTRIES.put("Integer", new Object[] { Integer.class, "123456" });
+			ENTRIES.put("Long", new Object[] { Long.class, "1234567890123" });
+			ENTRIES.put("Double", new Object[] { Double.class, "12345.678" });
+			ENTRIES.put("Float", new Object[] { Float.class, "123.5" });
+			ENTRIES.put("Short", new Object[] { Short.class, "12345" });
+			ENTRIES.put("Boolean", new Object[] { Boolean.class, "true" });
+			ENTRIES.put("Byte", new Object[] { Byte.class, "123" });
+			ENTRIES.put("Character", new Object[] { Character.class, "65" });
+			ENTRIES.put("BigDecimal", new Object[] { BigDecimal.class, "12345.6789012345678901234567890" });
+			ENTRIES.put("BigInteger", new Object[] { BigInteger.class, "123456789012345678901234567890" });
+			ENTRIES.put("Object", new Object[] { Object.class, "{\"a\":[1,2,3],\"b\":\"c\"}" });
+			ENTRIES.put("Any", new Object[] { Any.class, "{\"a\":[1,2,3],\"b\":\"c\"}" });
+		}
+
+		/**
+		 * entry being measured
+		 */
+		@Param({ "Integer", "Long", "Double", "Float", "Short", "Boolean", "Byte", "Character", "BigDecimal",
+				"BigInteger", "Object", "Any" })
+		public String entry;
+		/**
+		 * NATIVE_DECODERS entry
+		 */
+		private Decoder decoder;
+		/**
+		 * input of the entry
+		 */
+		private byte[] json;
+		/**
+		 * iterator reset on every call
+		 */
+		private final JsonIterator iter = JsonIterator.parse(new byte[0]);
+
+		/**
+		 * 
+		 */
+		@Setup
+		public void setup() {
+			Object[] input = ENTRIES.get(entry);
+			decoder = CodegenImplNative.NATIVE_DECODERS.get(input[0]);
+			json = ((String) input[1]).getBytes();
+		}
+	}
+
+	/**
+	 * 
+	 * @param boxed
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	public Object boxedDecoder(Boxed boxed) throws IOException {
+		boxed.iter.reset(boxed.json);
+		Object value = boxed.decoder.decode(boxed.iter);
+		// Any is lazy, make it parse what it holds
+		return value instanceof Any ? ((Any) value).size() : value;
+	}
+}